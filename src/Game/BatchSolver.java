@@ -0,0 +1,156 @@
+package Game;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class BatchSolver {
+    public static final long CHUNK_BYTES = 1 << 20;
+
+    private static final byte[] INVALID = "invalid\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] UNSOLVABLE = "unsolvable\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final SudokuSolver.Strategy strategy;
+    private final SolveCache cache;
+    private final AtomicLong solved = new AtomicLong();
+    private final AtomicLong unsolvable = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public BatchSolver(SudokuSolver.Strategy strategy, SolveCache cache) {
+        this.strategy = strategy;
+        this.cache = cache;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String input = null;
+        String output = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int maxInFlight = 0;
+        int cacheSize = 0;
+        SudokuSolver.Strategy strategy = SudokuSolver.Strategy.MRV;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--in-flight":
+                    maxInFlight = Integer.parseInt(args[++i]);
+                    break;
+                case "--cache":
+                    cacheSize = Integer.parseInt(args[++i]);
+                    break;
+                case "--strategy":
+                    strategy = SudokuSolver.Strategy.valueOf(args[++i].toUpperCase());
+                    break;
+                default:
+                    if (input == null) {
+                        input = args[i];
+                    } else {
+                        output = args[i];
+                    }
+            }
+        }
+        if (input == null) {
+            System.err.println("Usage: BatchSolver <input> [output] [--threads N] [--in-flight N] [--cache N] [--strategy S]");
+            System.exit(1);
+        }
+        if (maxInFlight <= 0) {
+            maxInFlight = threads * 4;
+        }
+
+        BatchSolver batch = new BatchSolver(strategy, cacheSize > 0 ? new SolveCache(cacheSize, true) : null);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (MappedPuzzleReader reader = new MappedPuzzleReader(Paths.get(input));
+                OutputStream out = new BufferedOutputStream(
+                        output == null ? System.out : Files.newOutputStream(Paths.get(output)), 1 << 16)) {
+            batch.run(reader.splitBySize(CHUNK_BYTES), out, pool, maxInFlight);
+        } finally {
+            pool.shutdown();
+        }
+        batch.report(System.nanoTime() - start);
+    }
+
+    public void run(List<MappedPuzzleReader.Chunk> chunks, OutputStream out, ExecutorService pool,
+            int maxInFlight) throws IOException, InterruptedException {
+        ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+        for (MappedPuzzleReader.Chunk chunk : chunks) {
+            if (inFlight.size() >= maxInFlight) {
+                write(inFlight.poll(), out);
+            }
+            inFlight.add(pool.submit(() -> solve(chunk)));
+        }
+        while (!inFlight.isEmpty()) {
+            write(inFlight.poll(), out);
+        }
+    }
+
+    private byte[] solve(MappedPuzzleReader.Chunk chunk) throws IOException {
+        byte[] board = new byte[81];
+        byte[] line = new byte[82];
+        line[81] = '\n';
+        ByteArrayOutputStream out = new ByteArrayOutputStream((int) (chunk.getEnd() - chunk.getStart()) + 64);
+        int status;
+        while ((status = chunk.next(board)) != MappedPuzzleReader.END) {
+            byte[] result = status == MappedPuzzleReader.PUZZLE ? solve(board) : invalid();
+            if (result == null) {
+                PuzzleFormat.format(board, line, 0);
+                out.write(line, 0, 82);
+            } else {
+                out.write(result, 0, result.length);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] invalid() {
+        failed.incrementAndGet();
+        return INVALID;
+    }
+
+    // Givens that clash are reported as invalid; any other failure is a bug and fails the batch
+    private byte[] solve(byte[] board) {
+        if (!ValidatePuzzle.validate(board).isValid()) {
+            return invalid();
+        }
+        boolean solvedBoard = cache != null ? cache.solve(board, strategy) : SudokuSolver.solve(board, strategy);
+        if (!solvedBoard) {
+            unsolvable.incrementAndGet();
+            return UNSOLVABLE;
+        }
+        solved.incrementAndGet();
+        return null;
+    }
+
+    private void write(Future<byte[]> result, OutputStream out) throws IOException, InterruptedException {
+        try {
+            out.write(result.get());
+        } catch (ExecutionException e) {
+            throw new IOException("Batch solve failed", e.getCause());
+        }
+    }
+
+    public void report(long nanos) {
+        long total = solved.get() + unsolvable.get() + failed.get();
+        double seconds = nanos / 1e9;
+        System.err.printf("Puzzles: %d  Solved: %d  Unsolvable: %d  Failures: %d%n", total, solved.get(),
+                unsolvable.get(), failed.get());
+        System.err.printf("Time: %.3f s  Throughput: %.0f puzzles/sec%n", seconds, total / seconds);
+        if (cache != null) {
+            System.err.printf("Cache: %d hits  %d misses  %d evictions  %.1f%% hit rate%n", cache.getHits(),
+                    cache.getMisses(), cache.getEvictions(), cache.getHitRate() * 100);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Game;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generates a puzzle bank on all cores. Every worker owns its generator and a SplittableRandom
+// stream split from the master seed, and draws one seed per puzzle, so each output line can be
+// regenerated from the seed it records.
+public class BulkGenerator {
+    public static final int BATCH_SIZE = 256;
+
+    private final int difficulty;
+    private final List<TransformGenerator.Entry> library;
+    private SudokuGenerator.Symmetry symmetry = SudokuGenerator.Symmetry.NONE;
+    private final AtomicLong generated = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    public BulkGenerator(int difficulty) {
+        this(difficulty, null);
+    }
+
+    // With a library, puzzles are transformed library puzzles instead of freshly searched ones
+    public BulkGenerator(int difficulty, List<TransformGenerator.Entry> library) {
+        this.difficulty = difficulty;
+        this.library = library;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String output = null;
+        long count = 10000;
+        int difficulty = SudokuGenerator.MEDIUM;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = System.nanoTime();
+        List<TransformGenerator.Entry> library = null;
+        SudokuGenerator.Symmetry symmetry = SudokuGenerator.Symmetry.NONE;
+
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--count":
+                    count = Long.parseLong(args[++i]);
+                    break;
+                case "--difficulty":
+                    difficulty = parseDifficulty(args[++i]);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(args[++i]);
+                    break;
+                case "--symmetry":
+                    symmetry = SudokuGenerator.Symmetry.valueOf(args[++i].toUpperCase());
+                    break;
+                case "--transform":
+                    library = TransformGenerator.builtin();
+                    break;
+                case "--library":
+                    library = TransformGenerator.load(Paths.get(args[++i]));
+                    break;
+                default:
+                    output = args[i];
+            }
+        }
+
+        BulkGenerator bulk = new BulkGenerator(difficulty, library);
+        bulk.setSymmetry(symmetry);
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try (OutputStream out = new BufferedOutputStream(
+                output == null ? System.out : Files.newOutputStream(Paths.get(output)), 1 << 16)) {
+            bulk.run(count, seed, out, pool, threads);
+        } finally {
+            pool.shutdown();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Generated: %d  Rejected: %d%n", bulk.generated.get(), bulk.rejected.get());
+        System.err.printf("Time: %.3f s  Throughput: %.0f puzzles/sec%n", seconds, bulk.generated.get() / seconds);
+    }
+
+    private static int parseDifficulty(String value) {
+        switch (value.toUpperCase()) {
+            case "EASY":
+                return SudokuGenerator.EASY;
+            case "MEDIUM":
+                return SudokuGenerator.MEDIUM;
+            case "HARD":
+                return SudokuGenerator.HARD;
+            case "NIGHTMARE":
+                return SudokuGenerator.NIGHTMARE;
+            case "MINIMAL":
+                return SudokuGenerator.MINIMAL;
+            default:
+                return Integer.parseInt(value);
+        }
+    }
+
+    public void run(long count, long seed, OutputStream out, ExecutorService pool, int workers)
+            throws IOException, InterruptedException {
+        SplittableRandom master = new SplittableRandom(seed);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int w = 0; w < workers; w++) {
+            long share = count / workers + (w < count % workers ? 1 : 0);
+            SplittableRandom stream = master.split();
+            futures.add(pool.submit(() -> {
+                work(share, stream, out);
+                return null;
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                throw new IOException("Generator worker failed", e.getCause());
+            }
+        }
+    }
+
+    private void work(long share, SplittableRandom stream, OutputStream out) throws IOException {
+        SudokuGenerator generator = library == null ? new SudokuGenerator() : null;
+        if (generator != null) {
+            generator.setSymmetry(symmetry);
+        }
+        TransformGenerator transformer = library == null ? null : new TransformGenerator(library);
+        DancingLinksSolver checker = new DancingLinksSolver();
+        StringBuilder batch = new StringBuilder(BATCH_SIZE * 112);
+        byte[] line = new byte[81];
+        int lines = 0;
+
+        for (long done = 0; done < share; ) {
+            long seed = stream.nextLong();
+            byte[] puzzle;
+            double rating;
+            if (transformer != null) {
+                // Library puzzles were checked on load and transforms keep them unique
+                transformer.generate(difficulty, seed);
+                puzzle = transformer.getPuzzleBoard();
+                rating = transformer.getRating();
+            } else {
+                generator.generate(difficulty, seed);
+                puzzle = generator.getPuzzleBoard();
+                rating = generator.getRating();
+            }
+
+            // The generator already proves uniqueness; this is an independent check with a different solver
+            if (transformer == null && checker.countSolutions(puzzle, 2) != 1) {
+                rejected.incrementAndGet();
+                continue;
+            }
+
+            PuzzleFormat.format(puzzle, line, 0);
+            batch.append(new String(line, StandardCharsets.US_ASCII)).append(' ')
+                    .append(String.format("%016x", seed)).append(' ')
+                    .append(difficulty).append(' ')
+                    .append(String.format(Locale.ROOT, "%.1f", rating)).append('\n');
+            done++;
+            generated.incrementAndGet();
+
+            if (++lines == BATCH_SIZE || done == share) {
+                byte[] bytes = batch.toString().getBytes(StandardCharsets.US_ASCII);
+                synchronized (out) {
+                    out.write(bytes);
+                }
+                batch.setLength(0);
+                lines = 0;
+            }
+        }
+    }
+
+    public void setSymmetry(SudokuGenerator.Symmetry symmetry) {
+        this.symmetry = symmetry;
+    }
+
+    public long getGenerated() {
+        return generated.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+}
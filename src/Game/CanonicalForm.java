@@ -0,0 +1,270 @@
+package Game;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+public class CanonicalForm {
+    public static final int NODE_BUDGET = 200_000;
+
+    private final byte[] board = new byte[81];
+    private final int[] rowOrder = new int[9];
+    private final int[] colOrder = new int[9];
+    private final int[] labels = new int[10];
+    private final int[] digits = new int[10];
+    private boolean transposed;
+    private boolean exact;
+
+    private CanonicalForm() {
+    }
+
+    // Gives up after NODE_BUDGET search nodes and falls back to the grid as given (see isExact)
+    public static CanonicalForm of(byte[] original) {
+        return of(original, NODE_BUDGET);
+    }
+
+    // Searches until done, however long it takes; for callers that must never miss a duplicate
+    public static CanonicalForm exact(byte[] original) {
+        return of(original, Integer.MAX_VALUE);
+    }
+
+    private static CanonicalForm of(byte[] original, int budget) {
+        CanonicalForm form = new CanonicalForm();
+        new Search(form, budget).run(original);
+        return form;
+    }
+
+    // False when the search ran out of budget and the board is only the identity form
+    public boolean isExact() {
+        return exact;
+    }
+
+    public byte[] getBoard() {
+        return board;
+    }
+
+    public String getKey() {
+        return new String(board, StandardCharsets.ISO_8859_1);
+    }
+
+    public void toCanonical(byte[] original, byte[] out) {
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                out[i * 9 + j] = (byte) labels[original[sourceCell(i, j)]];
+            }
+        }
+    }
+
+    public void fromCanonical(byte[] canonical, byte[] out) {
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                out[sourceCell(i, j)] = (byte) digits[canonical[i * 9 + j]];
+            }
+        }
+    }
+
+    private int sourceCell(int i, int j) {
+        int row = rowOrder[i];
+        int col = colOrder[j];
+        return transposed ? col * 9 + row : row * 9 + col;
+    }
+
+    private static class Search {
+        private final CanonicalForm form;
+        private final byte[] source = new byte[81];
+        private final byte[] current = new byte[81];
+        private final byte[] best = new byte[81];
+        private final int[] rows = new int[9];
+        private final int[] cols = new int[9];
+        private final int[] map = new int[10];
+        private final int[] order = new int[9];
+        private boolean transposed;
+        private int labelCount;
+        private int usedRows;
+        private int usedCols;
+        private boolean firstRowLess;
+        private int lessDepth;
+        private int budget;
+
+        Search(CanonicalForm form, int budget) {
+            this.form = form;
+            this.budget = budget;
+        }
+
+        void run(byte[] original) {
+            Arrays.fill(best, (byte) 10);
+            for (int t = 0; t < 2 && budget > 0; t++) {
+                transposed = t == 1;
+                for (int cell = 0; cell < 81; cell++) {
+                    source[cell] = transposed ? original[cell % 9 * 9 + cell / 9] : original[cell];
+                }
+                for (int r = 0; r < 9 && budget > 0; r++) {
+                    rows[0] = r;
+                    usedRows = 1 << r;
+                    searchColumns(0);
+                }
+            }
+
+            form.exact = budget > 0;
+            if (budget <= 0) {
+                identity(original);
+            } else {
+                System.arraycopy(best, 0, form.board, 0, 81);
+            }
+
+            int next = 0;
+            for (int digit = 1; digit <= 9; digit++) {
+                if (form.labels[digit] == 0) {
+                    while (form.digits[++next] != 0) {
+                    }
+                    form.labels[digit] = next;
+                    form.digits[next] = digit;
+                }
+            }
+        }
+
+        private void identity(byte[] original) {
+            System.arraycopy(original, 0, form.board, 0, 81);
+            form.transposed = false;
+            for (int i = 0; i <= 9; i++) {
+                form.labels[i] = i;
+                form.digits[i] = i;
+                if (i < 9) {
+                    form.rowOrder[i] = i;
+                    form.colOrder[i] = i;
+                }
+            }
+        }
+
+        private void searchColumns(int j) {
+            if (--budget <= 0) {
+                return;
+            }
+            if (j == 9) {
+                lessDepth = firstRowLess ? 0 : 9;
+                search(1);
+                return;
+            }
+
+            int from = 0;
+            int to = 9;
+            if (j % 3 != 0) {
+                from = cols[j - 1] / 3 * 3;
+                to = from + 3;
+            }
+
+            for (int c = from; c < to; c++) {
+                if ((usedCols & 1 << c) != 0 || j % 3 == 0 && (usedCols & 7 << (c / 3 * 3)) != 0) {
+                    continue;
+                }
+
+                int labelsBefore = labelCount;
+                int value = label(source[rows[0] * 9 + c]);
+                current[j] = (byte) value;
+                boolean setHere = false;
+                if (!firstRowLess && value != best[j]) {
+                    if (value > best[j]) {
+                        unlabel(labelsBefore);
+                        continue;
+                    }
+                    firstRowLess = true;
+                    setHere = true;
+                }
+
+                cols[j] = c;
+                usedCols |= 1 << c;
+                searchColumns(j + 1);
+                usedCols &= ~(1 << c);
+                if (setHere) {
+                    firstRowLess = false;
+                }
+                unlabel(labelsBefore);
+            }
+        }
+
+        private void search(int depth) {
+            if (--budget <= 0) {
+                return;
+            }
+            if (depth == 9) {
+                if (lessDepth < 9) {
+                    record();
+                }
+                return;
+            }
+
+            int from = 0;
+            int to = 9;
+            if (depth % 3 != 0) {
+                from = rows[depth - 1] / 3 * 3;
+                to = from + 3;
+            }
+
+            for (int r = from; r < to; r++) {
+                if ((usedRows & 1 << r) != 0 || depth % 3 == 0 && (usedRows & 7 << (r / 3 * 3)) != 0) {
+                    continue;
+                }
+
+                int labelsBefore = labelCount;
+                int cmp = lessDepth < depth ? -1 : 0;
+                int base = depth * 9;
+                for (int j = 0; j < 9 && cmp <= 0; j++) {
+                    int value = label(source[r * 9 + cols[j]]);
+                    current[base + j] = (byte) value;
+                    if (cmp == 0 && value != best[base + j]) {
+                        cmp = value < best[base + j] ? -1 : 1;
+                    }
+                }
+
+                if (cmp <= 0) {
+                    int saved = lessDepth;
+                    if (cmp < 0 && lessDepth > depth) {
+                        lessDepth = depth;
+                    }
+                    rows[depth] = r;
+                    usedRows |= 1 << r;
+                    search(depth + 1);
+                    usedRows &= ~(1 << r);
+                    if (lessDepth == depth) {
+                        lessDepth = saved;
+                    }
+                }
+                unlabel(labelsBefore);
+            }
+        }
+
+        private int label(int value) {
+            if (value == 0) {
+                return 0;
+            }
+            if (map[value] == 0) {
+                order[labelCount] = value;
+                map[value] = ++labelCount;
+            }
+            return map[value];
+        }
+
+        private void unlabel(int labelsBefore) {
+            while (labelCount > labelsBefore) {
+                map[order[--labelCount]] = 0;
+            }
+        }
+
+        private void record() {
+            System.arraycopy(current, 0, best, 0, 81);
+            form.transposed = transposed;
+            System.arraycopy(rows, 0, form.rowOrder, 0, 9);
+            System.arraycopy(cols, 0, form.colOrder, 0, 9);
+            for (int digit = 0; digit <= 9; digit++) {
+                form.labels[digit] = map[digit];
+                form.digits[digit] = 0;
+            }
+            for (int digit = 1; digit <= 9; digit++) {
+                if (map[digit] != 0) {
+                    form.digits[map[digit]] = digit;
+                }
+            }
+            firstRowLess = false;
+            lessDepth = 9;
+        }
+    }
+}
@@ -0,0 +1,394 @@
+package Game;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+// A small bounded pool of JDBC connections. Borrowers get a proxy whose close() hands the
+// connection back (closing any statements it left open) instead of dropping the socket.
+// Connections are validated on borrow, retired after maxLifetime, and closed by a daemon
+// evictor once they have been idle longer than idleTimeout. When all maxSize connections
+// are in use, borrowers wait up to waitTimeout before getting an SQLException.
+public class ConnectionPool implements ConnectionPoolMBean {
+    public static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final long waitTimeoutNanos;
+    private final Thread evictor;
+
+    // Most recently returned first, so the oldest idle connections are the ones that expire
+    private final ArrayDeque<Pooled> idle = new ArrayDeque<>();
+    private int total;
+    private int active;
+    private int waiters;
+    private boolean closed;
+
+    private final LongAdder borrowed = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder destroyed = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+
+    public ConnectionPool(String url, String user, String password, int maxSize, long idleTimeoutMillis,
+            long maxLifetimeMillis, long waitTimeoutMillis) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Bad pool size: " + maxSize);
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.idleTimeoutNanos = idleTimeoutMillis * 1_000_000L;
+        this.maxLifetimeNanos = maxLifetimeMillis * 1_000_000L;
+        this.waitTimeoutNanos = waitTimeoutMillis * 1_000_000L;
+
+        evictor = new Thread(this::evict, "jdbc-pool-evictor");
+        evictor.setDaemon(true);
+        evictor.start();
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        while (true) {
+            Pooled pooled = take(start);
+            if (pooled == null) {
+                // A slot was reserved for a new connection
+                try {
+                    pooled = new Pooled(DriverManager.getConnection(url, user, password));
+                    created.increment();
+                } catch (SQLException e) {
+                    synchronized (this) {
+                        total--;
+                        active--;
+                        notifyAll();
+                    }
+                    throw e;
+                }
+            } else if (!isUsable(pooled)) {
+                discard(pooled);
+                continue;
+            }
+
+            borrowed.increment();
+            waitNanos.add(System.nanoTime() - start);
+            return pooled.lend();
+        }
+    }
+
+    // An idle connection, or null after reserving room for a new one; waits while the pool is full
+    private synchronized Pooled take(long start) throws SQLException {
+        while (true) {
+            if (closed) {
+                throw new SQLException("Connection pool is closed");
+            }
+            Pooled pooled = idle.pollFirst();
+            if (pooled != null) {
+                active++;
+                return pooled;
+            }
+            if (total < maxSize) {
+                total++;
+                active++;
+                return null;
+            }
+
+            long remaining = waitTimeoutNanos - (System.nanoTime() - start);
+            if (remaining <= 0) {
+                timeouts.increment();
+                throw new SQLException("Timed out after " + waitTimeoutNanos / 1_000_000
+                        + " ms waiting for a database connection");
+            }
+            waiters++;
+            try {
+                wait(remaining / 1_000_000, (int) (remaining % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted waiting for a database connection", e);
+            } finally {
+                waiters--;
+            }
+        }
+    }
+
+    private boolean isUsable(Pooled pooled) {
+        if (System.nanoTime() - pooled.createdAt > maxLifetimeNanos) {
+            return false;
+        }
+        try {
+            return pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Pooled pooled) {
+        boolean keep = System.nanoTime() - pooled.createdAt <= maxLifetimeNanos;
+        try {
+            if (keep && !pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            keep = false;
+        }
+
+        if (!keep) {
+            discard(pooled);
+            return;
+        }
+        synchronized (this) {
+            active--;
+            if (closed) {
+                total--;
+            } else {
+                pooled.lastUsed = System.nanoTime();
+                idle.addFirst(pooled);
+                pooled = null;
+            }
+            notifyAll();
+        }
+        if (pooled != null) {
+            close(pooled);
+        }
+    }
+
+    // Drops a borrowed connection and frees its slot
+    private void discard(Pooled pooled) {
+        synchronized (this) {
+            total--;
+            active--;
+            notifyAll();
+        }
+        close(pooled);
+    }
+
+    private void close(Pooled pooled) {
+        destroyed.increment();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            // Already broken; nothing more to release
+        }
+    }
+
+    private void evict() {
+        long interval = Math.max(1000, Math.min(idleTimeoutNanos, maxLifetimeNanos) / 2_000_000);
+        while (true) {
+            try {
+                Thread.sleep(interval);
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            List<Pooled> expired = new ArrayList<>();
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                long now = System.nanoTime();
+                for (Pooled pooled : idle) {
+                    if (now - pooled.lastUsed > idleTimeoutNanos || now - pooled.createdAt > maxLifetimeNanos) {
+                        expired.add(pooled);
+                    }
+                }
+                idle.removeAll(expired);
+                total -= expired.size();
+                if (!expired.isEmpty()) {
+                    notifyAll();
+                }
+            }
+            for (Pooled pooled : expired) {
+                close(pooled);
+            }
+        }
+    }
+
+    // Closes idle connections now and borrowed ones as they come back, and stops the evictor
+    public void close() {
+        List<Pooled> drained;
+        synchronized (this) {
+            closed = true;
+            drained = new ArrayList<>(idle);
+            idle.clear();
+            total -= drained.size();
+            notifyAll();
+        }
+        evictor.interrupt();
+        for (Pooled pooled : drained) {
+            close(pooled);
+        }
+    }
+
+    private static boolean isClosed(Statement statement) {
+        try {
+            return statement.isClosed();
+        } catch (SQLException e) {
+            return true;
+        }
+    }
+
+    @Override
+    public synchronized int getActive() {
+        return active;
+    }
+
+    @Override
+    public synchronized int getIdle() {
+        return idle.size();
+    }
+
+    @Override
+    public synchronized int getWaiters() {
+        return waiters;
+    }
+
+    @Override
+    public synchronized int getTotal() {
+        return total;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public long getBorrowed() {
+        return borrowed.sum();
+    }
+
+    @Override
+    public long getCreated() {
+        return created.sum();
+    }
+
+    @Override
+    public long getDestroyed() {
+        return destroyed.sum();
+    }
+
+    @Override
+    public long getTimeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public double getMeanBorrowMillis() {
+        long count = borrowed.sum();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    private class Pooled {
+        final Connection connection;
+        final long createdAt = System.nanoTime();
+        long lastUsed = createdAt;
+
+        Pooled(Connection connection) {
+            this.connection = connection;
+        }
+
+        // Each loan gets its own proxy, so a stale reference cannot touch the next borrower's session
+        Connection lend() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class }, new Loan(this));
+        }
+    }
+
+    private class Loan implements InvocationHandler {
+        private final Pooled pooled;
+        private final List<Statement> statements = new ArrayList<>();
+        // Set by whichever thread closes or aborts the loan; read by every other call
+        private volatile boolean returned;
+
+        Loan(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (end()) {
+                        for (Statement statement : statements) {
+                            try {
+                                statement.close();
+                            } catch (SQLException e) {
+                                // The connection is checked again before it is lent out
+                            }
+                        }
+                        release(pooled);
+                    }
+                    return null;
+                case "abort":
+                    // An aborted connection cannot be reused, so its slot is freed by discarding it
+                    if (end()) {
+                        try {
+                            method.invoke(pooled.connection, args);
+                        } catch (InvocationTargetException e) {
+                            // discard() closes it regardless
+                        } finally {
+                            discard(pooled);
+                        }
+                    }
+                    return null;
+                case "unwrap":
+                    // Handing out the raw connection would let it outlive the loan
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("A pooled connection cannot be unwrapped to " + args[0]);
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "isClosed":
+                    return returned || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled " + pooled.connection;
+                default:
+                    if (returned) {
+                        throw new SQLException("Connection is closed");
+                    }
+            }
+
+            Object result;
+            try {
+                result = method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Statement) {
+                if (statements.size() >= 16) {
+                    statements.removeIf(ConnectionPool::isClosed);
+                }
+                statements.add((Statement) result);
+            }
+            return result;
+        }
+
+        // True for the one call that ends the loan, whichever thread makes it
+        private synchronized boolean end() {
+            if (returned) {
+                return false;
+            }
+            returned = true;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package Game;
+
+public interface ConnectionPoolMBean {
+    int getActive();
+
+    int getIdle();
+
+    int getWaiters();
+
+    int getTotal();
+
+    int getMaxSize();
+
+    long getBorrowed();
+
+    long getCreated();
+
+    long getDestroyed();
+
+    long getTimeouts();
+
+    double getMeanBorrowMillis();
+}
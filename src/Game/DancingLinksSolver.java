@@ -0,0 +1,253 @@
+package Game;
+
+import java.util.function.Consumer;
+
+public class DancingLinksSolver {
+    private static final int COLUMNS = 324;
+    private static final int ROWS = 729;
+    private static final int NODES = 1 + COLUMNS + ROWS * 4;
+
+    private final int[] left = new int[NODES];
+    private final int[] right = new int[NODES];
+    private final int[] up = new int[NODES];
+    private final int[] down = new int[NODES];
+    private final int[] column = new int[NODES];
+    private final int[] rowOf = new int[NODES];
+    private final int[] size = new int[COLUMNS + 1];
+    private final int[] stack = new int[81];
+    private final byte[] scratch = new byte[81];
+
+    private byte[] board;
+    private long solutions;
+    private long limit;
+    private boolean fill;
+    private Consumer<byte[]> visitor;
+    private SolverStats stats;
+    private SolveBudget budget;
+
+    public DancingLinksSolver() {
+        for (int c = 0; c <= COLUMNS; c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c;
+            down[c] = c;
+            column[c] = c;
+        }
+
+        int node = COLUMNS + 1;
+        for (int r = 0; r < ROWS; r++) {
+            int cell = r / 9;
+            int digit = r % 9;
+            int row = cell / 9;
+            int col = cell % 9;
+            int[] columns = {
+                    cell,
+                    81 + row * 9 + digit,
+                    162 + col * 9 + digit,
+                    243 + SudokuEngine.box(row, col) * 9 + digit };
+
+            int first = node;
+            for (int k = 0; k < 4; k++, node++) {
+                int c = columns[k] + 1;
+                column[node] = c;
+                rowOf[node] = r;
+                up[node] = up[c];
+                down[node] = c;
+                down[up[c]] = node;
+                up[c] = node;
+                size[c]++;
+                left[node] = k == 0 ? first + 3 : node - 1;
+                right[node] = k == 3 ? first : node + 1;
+            }
+        }
+    }
+
+    public boolean solve(int[][] puzzle) {
+        load(puzzle);
+        if (solve(scratch)) {
+            for (int cell = 0; cell < 81; cell++) {
+                puzzle[SudokuEngine.ROW[cell]][SudokuEngine.COL[cell]] = scratch[cell];
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean solve(byte[] board) {
+        fill = true;
+        try {
+            return run(board, 1, null) == 1;
+        } finally {
+            fill = false;
+        }
+    }
+
+    public long countSolutions(int[][] puzzle, long limit) {
+        load(puzzle);
+        return run(scratch, limit, null);
+    }
+
+    public long countSolutions(byte[] board, long limit) {
+        return run(board, limit, null);
+    }
+
+    public long enumerateSolutions(byte[] board, long limit, Consumer<byte[]> visitor) {
+        return run(board, limit, visitor);
+    }
+
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    private void load(int[][] puzzle) {
+        for (int cell = 0; cell < 81; cell++) {
+            scratch[cell] = (byte) puzzle[SudokuEngine.ROW[cell]][SudokuEngine.COL[cell]];
+        }
+    }
+
+    private long run(byte[] board, long limit, Consumer<byte[]> visitor) {
+        this.board = board;
+        this.solutions = 0;
+        this.limit = limit;
+        this.visitor = visitor;
+
+        int given = 0;
+        boolean consistent = true;
+        for (int cell = 0; cell < 81 && consistent; cell++) {
+            int value = board[cell];
+            if (value != 0) {
+                int first = firstNode(cell * 9 + value - 1);
+                for (int j = first, k = 0; k < 4; j = right[j], k++) {
+                    if (!isActive(column[j])) {
+                        consistent = false;
+                    }
+                }
+                if (consistent) {
+                    stack[given++] = first;
+                    coverRow(first);
+                }
+            }
+        }
+
+        if (consistent) {
+            search(given, given);
+        }
+
+        while (given > 0) {
+            uncoverRow(stack[--given]);
+        }
+        this.board = null;
+        this.visitor = null;
+        return solutions;
+    }
+
+    private boolean search(int givens, int depth) {
+        if (stats != null) {
+            stats.enter(depth - givens);
+        }
+        if (budget != null && !budget.tick()) {
+            return true;
+        }
+        if (right[0] == 0) {
+            solutions++;
+            if (fill || visitor != null) {
+                writeSolution(givens, depth, true);
+                if (visitor != null) {
+                    visitor.accept(board);
+                    writeSolution(givens, depth, false);
+                }
+            }
+            return solutions >= limit;
+        }
+
+        int best = right[0];
+        for (int c = right[best]; c != 0 && size[best] > 1; c = right[c]) {
+            if (size[c] < size[best]) {
+                best = c;
+            }
+        }
+        if (size[best] == 0) {
+            return false;
+        }
+
+        cover(best);
+        for (int r = down[best]; r != best; r = down[r]) {
+            stack[depth] = r;
+            for (int j = right[r]; j != r; j = right[j]) {
+                cover(column[j]);
+            }
+            boolean stop = search(givens, depth + 1);
+            for (int j = left[r]; j != r; j = left[j]) {
+                uncover(column[j]);
+            }
+            if (stop) {
+                uncover(best);
+                return true;
+            }
+            if (stats != null) {
+                stats.backtracks++;
+            }
+        }
+        uncover(best);
+        return false;
+    }
+
+    private void writeSolution(int from, int to, boolean fill) {
+        for (int i = from; i < to; i++) {
+            int r = rowOf[stack[i]];
+            board[r / 9] = (byte) (fill ? r % 9 + 1 : 0);
+        }
+    }
+
+    private int firstNode(int row) {
+        return COLUMNS + 1 + row * 4;
+    }
+
+    private boolean isActive(int c) {
+        return right[left[c]] == c;
+    }
+
+    private void coverRow(int first) {
+        int j = first;
+        do {
+            cover(column[j]);
+            j = right[j];
+        } while (j != first);
+    }
+
+    private void uncoverRow(int first) {
+        int j = left[first];
+        do {
+            uncover(column[j]);
+            j = left[j];
+        } while (j != left[first]);
+    }
+
+    private void cover(int c) {
+        right[left[c]] = right[c];
+        left[right[c]] = left[c];
+        for (int i = down[c]; i != c; i = down[i]) {
+            for (int j = right[i]; j != i; j = right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i = up[c]; i != c; i = up[i]) {
+            for (int j = left[i]; j != i; j = left[j]) {
+                size[column[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        right[left[c]] = c;
+        left[right[c]] = c;
+    }
+}
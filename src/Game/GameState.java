@@ -0,0 +1,182 @@
+package Game;
+
+import static Game.SudokuEngine.ALL;
+import static Game.SudokuEngine.BOX;
+import static Game.SudokuEngine.COL;
+import static Game.SudokuEngine.PEERS;
+import static Game.SudokuEngine.ROW;
+
+// Headless model of a game in progress. Every edit touches only the cell, its three units
+// and its 20 peers, and records which cells need repainting.
+public class GameState {
+    private final byte[] solution = new byte[81];
+    private final byte[] cells = new byte[81];
+    private final boolean[] fixed = new boolean[81];
+    private final byte[] charged = new byte[81];
+    private final int[] unitCounts = new int[27 * 10];
+    private final int[] unitMasks = new int[27];
+    private final boolean[] conflict = new boolean[81];
+    private final int[] dirty = new int[81];
+    private final boolean[] isDirty = new boolean[81];
+    private int dirtyCount;
+    private int filled;
+    private int correct;
+    private int conflictCount;
+
+    // Free entry: no givens and no known solution, so only conflicts are tracked
+    public GameState() {
+        this(new byte[81], new byte[81]);
+    }
+
+    public GameState(byte[] puzzle, byte[] solution) {
+        System.arraycopy(solution, 0, this.solution, 0, 81);
+        for (int cell = 0; cell < 81; cell++) {
+            int value = puzzle[cell];
+            if (value != 0) {
+                fixed[cell] = true;
+                cells[cell] = (byte) value;
+                add(cell, value);
+                filled++;
+                if (value == solution[cell]) {
+                    correct++;
+                }
+            }
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            updateConflict(cell);
+        }
+    }
+
+    // Returns true when the edit is a new mistake: a wrong value that was not already
+    // charged at this cell
+    public boolean set(int cell, int value) {
+        int old = cells[cell];
+        if (fixed[cell] || old == value) {
+            return false;
+        }
+
+        if (old != 0) {
+            remove(cell, old);
+            filled--;
+            if (old == solution[cell]) {
+                correct--;
+            }
+        }
+        cells[cell] = (byte) value;
+        if (value != 0) {
+            add(cell, value);
+            filled++;
+            if (value == solution[cell]) {
+                correct++;
+            }
+        }
+
+        markDirty(cell);
+        updateConflict(cell);
+        for (int peer : PEERS[cell]) {
+            int v = cells[peer];
+            if (v != 0 && (v == old || v == value)) {
+                updateConflict(peer);
+            }
+        }
+
+        if (value != 0 && solution[cell] != 0 && value != solution[cell] && value != charged[cell]) {
+            charged[cell] = (byte) value;
+            return true;
+        }
+        return false;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public int getSolution(int cell) {
+        return solution[cell];
+    }
+
+    public boolean isFixed(int cell) {
+        return fixed[cell];
+    }
+
+    public boolean isWrong(int cell) {
+        return cells[cell] != 0 && solution[cell] != 0 && cells[cell] != solution[cell];
+    }
+
+    public boolean hasConflict(int cell) {
+        return conflict[cell];
+    }
+
+    public int getConflictCount() {
+        return conflictCount;
+    }
+
+    public int getFilled() {
+        return filled;
+    }
+
+    public boolean isComplete() {
+        return correct == 81;
+    }
+
+    // Digits not yet used in the cell's row, column or box
+    public int candidates(int cell) {
+        return ~(unitMasks[ROW[cell]] | unitMasks[9 + COL[cell]] | unitMasks[18 + BOX[cell]]) & ALL;
+    }
+
+    public void store(byte[] board) {
+        System.arraycopy(cells, 0, board, 0, 81);
+    }
+
+    // Copies the cells changed since the last call into out and returns how many there are
+    public int takeDirty(int[] out) {
+        int count = dirtyCount;
+        for (int i = 0; i < count; i++) {
+            out[i] = dirty[i];
+            isDirty[dirty[i]] = false;
+        }
+        dirtyCount = 0;
+        return count;
+    }
+
+    private void add(int cell, int value) {
+        count(ROW[cell], value, 1);
+        count(9 + COL[cell], value, 1);
+        count(18 + BOX[cell], value, 1);
+    }
+
+    private void remove(int cell, int value) {
+        count(ROW[cell], value, -1);
+        count(9 + COL[cell], value, -1);
+        count(18 + BOX[cell], value, -1);
+    }
+
+    private void count(int unit, int value, int delta) {
+        int index = unit * 10 + value;
+        unitCounts[index] += delta;
+        if (unitCounts[index] > 0) {
+            unitMasks[unit] |= 1 << (value - 1);
+        } else {
+            unitMasks[unit] &= ~(1 << (value - 1));
+        }
+    }
+
+    private void updateConflict(int cell) {
+        int value = cells[cell];
+        boolean now = value != 0 && (unitCounts[ROW[cell] * 10 + value] > 1
+                || unitCounts[(9 + COL[cell]) * 10 + value] > 1
+                || unitCounts[(18 + BOX[cell]) * 10 + value] > 1);
+        if (now != conflict[cell]) {
+            conflict[cell] = now;
+            conflictCount += now ? 1 : -1;
+            markDirty(cell);
+        }
+    }
+
+    private void markDirty(int cell) {
+        if (!isDirty[cell]) {
+            isDirty[cell] = true;
+            dirty[dirtyCount++] = cell;
+        }
+    }
+}
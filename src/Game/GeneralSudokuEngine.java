@@ -0,0 +1,287 @@
+package Game;
+
+import java.util.Random;
+
+public class GeneralSudokuEngine {
+    private static final int ABORTED = -1;
+    private static final long RESTART_NODES = 200;
+
+    private final int boxSize;
+    private final int side;
+    private final int size;
+    private final long all;
+    private final int[] rowOf;
+    private final int[] colOf;
+    private final int[] boxOf;
+    private final int[][] units;
+
+    private final int[] cells;
+    private final long[] rowMask;
+    private final long[] colMask;
+    private final long[] boxMask;
+    private final int[] trail;
+    private int trailSize;
+    private boolean consistent = true;
+    private Random random;
+    private long nodeBudget;
+    private SolveBudget budget;
+
+    public GeneralSudokuEngine(int boxSize) {
+        if (boxSize < 2 || boxSize > 8) {
+            throw new IllegalArgumentException("Unsupported box size: " + boxSize);
+        }
+        this.boxSize = boxSize;
+        this.side = boxSize * boxSize;
+        this.size = side * side;
+        this.all = side == 64 ? -1L : (1L << side) - 1;
+
+        rowOf = new int[size];
+        colOf = new int[size];
+        boxOf = new int[size];
+        for (int cell = 0; cell < size; cell++) {
+            rowOf[cell] = cell / side;
+            colOf[cell] = cell % side;
+            boxOf[cell] = rowOf[cell] / boxSize * boxSize + colOf[cell] / boxSize;
+        }
+
+        units = new int[side * 3][side];
+        for (int i = 0; i < side; i++) {
+            for (int j = 0; j < side; j++) {
+                units[i][j] = i * side + j;
+                units[side + i][j] = j * side + i;
+                units[2 * side + i][j] = (i / boxSize * boxSize + j / boxSize) * side
+                        + i % boxSize * boxSize + j % boxSize;
+            }
+        }
+
+        cells = new int[size];
+        rowMask = new long[side];
+        colMask = new long[side];
+        boxMask = new long[side];
+        trail = new int[size];
+    }
+
+    public static GeneralSudokuEngine forGrid(int[][] grid) {
+        int boxSize = (int) Math.round(Math.sqrt(grid.length));
+        if (boxSize * boxSize != grid.length) {
+            throw new IllegalArgumentException("Grid side " + grid.length + " is not a perfect square");
+        }
+        return new GeneralSudokuEngine(boxSize);
+    }
+
+    public int getBoxSize() {
+        return boxSize;
+    }
+
+    public int getSide() {
+        return side;
+    }
+
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    public boolean load(int[][] grid) {
+        for (int i = 0; i < side; i++) {
+            rowMask[i] = 0;
+            colMask[i] = 0;
+            boxMask[i] = 0;
+        }
+        trailSize = 0;
+        consistent = true;
+
+        for (int cell = 0; cell < size; cell++) {
+            int value = grid[rowOf[cell]][colOf[cell]];
+            cells[cell] = value;
+            if (value < 0 || value > side) {
+                consistent = false;
+            } else if (value != 0) {
+                long bit = 1L << (value - 1);
+                if ((candidates(cell) & bit) == 0) {
+                    consistent = false;
+                }
+                mark(cell, bit);
+            }
+        }
+        return consistent;
+    }
+
+    public void store(int[][] grid) {
+        for (int cell = 0; cell < size; cell++) {
+            grid[rowOf[cell]][colOf[cell]] = cells[cell];
+        }
+    }
+
+    public long candidates(int cell) {
+        return ~(rowMask[rowOf[cell]] | colMask[colOf[cell]] | boxMask[boxOf[cell]]) & all;
+    }
+
+    private void mark(int cell, long bit) {
+        rowMask[rowOf[cell]] |= bit;
+        colMask[colOf[cell]] |= bit;
+        boxMask[boxOf[cell]] |= bit;
+    }
+
+    private void assign(int cell, int value) {
+        cells[cell] = value;
+        mark(cell, 1L << (value - 1));
+        trail[trailSize++] = cell;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            int cell = trail[--trailSize];
+            long bit = ~(1L << (cells[cell] - 1));
+            cells[cell] = 0;
+            rowMask[rowOf[cell]] &= bit;
+            colMask[colOf[cell]] &= bit;
+            boxMask[boxOf[cell]] &= bit;
+        }
+    }
+
+    public boolean solve() {
+        if (!consistent) {
+            return false;
+        }
+        random = new Random(side);
+        for (long restartNodes = RESTART_NODES; ; restartNodes = restartNodes * 3 / 2) {
+            nodeBudget = restartNodes;
+            int result = search(1, true);
+            if (result == 1) {
+                return true;
+            }
+            undo(0);
+            if (result == 0 || budget != null && budget.isAborted()) {
+                return false;
+            }
+        }
+    }
+
+    public int countSolutions(int limit) {
+        if (!consistent || limit <= 0) {
+            return 0;
+        }
+        random = null;
+        nodeBudget = Long.MAX_VALUE;
+        int count = search(limit, false);
+        undo(0);
+        return Math.max(count, 0);
+    }
+
+    private int search(int limit, boolean keepSolution) {
+        if (--nodeBudget < 0 || budget != null && !budget.tick()) {
+            return ABORTED;
+        }
+        if (!propagate()) {
+            return 0;
+        }
+
+        int best = mostConstrainedCell();
+        if (best < 0) {
+            return 1;
+        }
+
+        long candidates = candidates(best);
+        int rotate = random == null ? 0 : random.nextInt(side);
+
+        int count = 0;
+        int mark = trailSize;
+        for (long remaining = candidates; remaining != 0; ) {
+            long bit = nextBit(remaining, rotate);
+            remaining &= ~bit;
+            assign(best, Long.numberOfTrailingZeros(bit) + 1);
+            int result = search(limit - count, keepSolution);
+            if (result == ABORTED) {
+                return ABORTED;
+            }
+            count += result;
+            if (count >= limit && keepSolution) {
+                return count;
+            }
+            undo(mark);
+            if (count >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private static long nextBit(long mask, int from) {
+        long high = mask & -(1L << from);
+        long pick = high != 0 ? high : mask;
+        return pick & -pick;
+    }
+
+    private int mostConstrainedCell() {
+        int best = -1;
+        int bestCount = side + 1;
+        int ties = 0;
+        for (int cell = 0; cell < size; cell++) {
+            if (cells[cell] == 0) {
+                int count = Long.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                    ties = 1;
+                } else if (count == bestCount && random != null && random.nextInt(++ties) == 0) {
+                    best = cell;
+                }
+                if (count <= 2 && random == null) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+
+            for (int cell = 0; cell < size; cell++) {
+                if (cells[cell] == 0) {
+                    long candidates = candidates(cell);
+                    if (candidates == 0) {
+                        return false;
+                    }
+                    if ((candidates & candidates - 1) == 0) {
+                        assign(cell, Long.numberOfTrailingZeros(candidates) + 1);
+                        changed = true;
+                    }
+                }
+            }
+
+            for (int[] unit : units) {
+                long placed = 0;
+                long once = 0;
+                long twice = 0;
+                for (int cell : unit) {
+                    int value = cells[cell];
+                    if (value != 0) {
+                        placed |= 1L << (value - 1);
+                    } else {
+                        long candidates = candidates(cell);
+                        twice |= once & candidates;
+                        once |= candidates;
+                    }
+                }
+                if ((placed | once) != all) {
+                    return false;
+                }
+
+                for (long hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                    long bit = hidden & -hidden;
+                    for (int cell : unit) {
+                        if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                            assign(cell, Long.numberOfTrailingZeros(bit) + 1);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,209 @@
+package Game;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import static Game.SudokuEngine.ALL;
+import static Game.SudokuEngine.BOX;
+import static Game.SudokuEngine.COL;
+import static Game.SudokuEngine.ROW;
+
+// Depth-first search driven by an explicit trail instead of recursion, so it can be stepped,
+// paused from another thread and checkpointed. Each trail entry packs the cell in the low
+// 7 bits and the mask of values already tried there above it.
+public class IterativeSolver {
+    public enum Status {
+        SEARCHING, SOLUTION, EXHAUSTED
+    }
+
+    private static final int CELL_BITS = 7;
+    private static final int CELL_MASK = (1 << CELL_BITS) - 1;
+
+    private final byte[] cells = new byte[81];
+    private final int[] rowMask = new int[9];
+    private final int[] colMask = new int[9];
+    private final int[] boxMask = new int[9];
+    private final int[] trail = new int[81];
+    private int depth;
+    private boolean backtracking;
+    private Status status = Status.SEARCHING;
+    private long steps;
+    private long solutions;
+    private volatile boolean paused;
+
+    public IterativeSolver(byte[] board) {
+        for (int cell = 0; cell < 81; cell++) {
+            int value = board[cell];
+            if (value != 0) {
+                if ((candidates(cell) & 1 << (value - 1)) == 0) {
+                    status = Status.EXHAUSTED;
+                }
+                place(cell, value);
+            }
+        }
+    }
+
+    public IterativeSolver(int[][] grid) {
+        this(SudokuEngine.toBoard(grid));
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public long getSteps() {
+        return steps;
+    }
+
+    public long getSolutions() {
+        return solutions;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public void store(byte[] board) {
+        System.arraycopy(cells, 0, board, 0, 81);
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    // Runs until the next solution, the end of the search, or a call to pause()
+    public Status run() {
+        paused = false;
+        Status result = step(Long.MAX_VALUE);
+        paused = false;
+        return result;
+    }
+
+    public Status step(long n) {
+        for (long i = 0; i < n && !paused; i++) {
+            step();
+            if (status != Status.SEARCHING) {
+                break;
+            }
+        }
+        return status;
+    }
+
+    // Makes one placement, or reports a solution when the grid is full
+    public Status step() {
+        if (status == Status.EXHAUSTED) {
+            return status;
+        }
+        if (status == Status.SOLUTION) {
+            status = Status.SEARCHING;
+            backtracking = true;
+        }
+        steps++;
+
+        if (!backtracking) {
+            int cell = mostConstrainedCell();
+            if (cell < 0) {
+                solutions++;
+                status = Status.SOLUTION;
+                return status;
+            }
+            trail[depth++] = cell;
+        }
+
+        while (depth > 0) {
+            int entry = trail[depth - 1];
+            int cell = entry & CELL_MASK;
+            int tried = entry >>> CELL_BITS;
+            if (cells[cell] != 0) {
+                unplace(cell);
+            }
+
+            int options = candidates(cell) & ~tried;
+            if (options != 0) {
+                int bit = options & -options;
+                place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                trail[depth - 1] = cell | (tried | bit) << CELL_BITS;
+                backtracking = false;
+                return status;
+            }
+            depth--;
+        }
+
+        status = Status.EXHAUSTED;
+        return status;
+    }
+
+    private int mostConstrainedCell() {
+        int best = -1;
+        int bestCount = 10;
+        for (int cell = 0; cell < 81 && bestCount > 1; cell++) {
+            if (cells[cell] == 0) {
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    private int candidates(int cell) {
+        return ~(rowMask[ROW[cell]] | colMask[COL[cell]] | boxMask[BOX[cell]]) & ALL;
+    }
+
+    private void place(int cell, int value) {
+        int bit = 1 << (value - 1);
+        cells[cell] = (byte) value;
+        rowMask[ROW[cell]] |= bit;
+        colMask[COL[cell]] |= bit;
+        boxMask[BOX[cell]] |= bit;
+    }
+
+    private void unplace(int cell) {
+        int bit = ~(1 << (cells[cell] - 1));
+        cells[cell] = 0;
+        rowMask[ROW[cell]] &= bit;
+        colMask[COL[cell]] &= bit;
+        boxMask[BOX[cell]] &= bit;
+    }
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.write(cells);
+        out.writeByte(depth);
+        for (int i = 0; i < depth; i++) {
+            out.writeShort(trail[i]);
+        }
+        out.writeByte(status.ordinal());
+        out.writeBoolean(backtracking);
+        out.writeLong(steps);
+        out.writeLong(solutions);
+    }
+
+    public static IterativeSolver readFrom(DataInput in) throws IOException {
+        byte[] board = new byte[81];
+        in.readFully(board);
+        IterativeSolver solver = new IterativeSolver(board);
+        solver.depth = in.readUnsignedByte();
+        if (solver.depth > 81) {
+            throw new IOException("Corrupt solver state: depth " + solver.depth);
+        }
+        for (int i = 0; i < solver.depth; i++) {
+            solver.trail[i] = in.readUnsignedShort();
+        }
+        int status = in.readUnsignedByte();
+        if (status >= Status.values().length) {
+            throw new IOException("Corrupt solver state: status " + status);
+        }
+        solver.status = Status.values()[status];
+        solver.backtracking = in.readBoolean();
+        solver.steps = in.readLong();
+        solver.solutions = in.readLong();
+        return solver;
+    }
+}
@@ -1,15 +1,40 @@
 package Game;
 
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import javax.management.JMException;
+import javax.management.ObjectName;
 
 public class JdbcConn {
-    private static String url = "jdbc:mysql://localhost:3306/sudoku";
+    public static final int POOL_SIZE = Integer.getInteger("sudoku.db.pool.size", 8);
+    public static final long IDLE_TIMEOUT_MILLIS = Long.getLong("sudoku.db.pool.idleTimeout", 300_000);
+    public static final long MAX_LIFETIME_MILLIS = Long.getLong("sudoku.db.pool.maxLifetime", 1_800_000);
+    public static final long WAIT_TIMEOUT_MILLIS = Long.getLong("sudoku.db.pool.waitTimeout", 5_000);
+
+    private static String url = "jdbc:mysql://localhost:3306/sudoku?rewriteBatchedStatements=true";
     private static String user = "root";
     private static String password = "";
 
+    private static ConnectionPool pool;
+
+    // Every connection comes from the shared pool; closing it hands it back
     public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(url, user, password);
+        return getPool().borrow();
+    }
+
+    public static synchronized ConnectionPool getPool() {
+        if (pool == null) {
+            pool = new ConnectionPool(url, user, password, POOL_SIZE, IDLE_TIMEOUT_MILLIS, MAX_LIFETIME_MILLIS,
+                    WAIT_TIMEOUT_MILLIS);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(pool,
+                        new ObjectName("Game:type=ConnectionPool"));
+            } catch (JMException e) {
+                System.out.println("Error registering connection pool metrics: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return pool;
     }
 }
@@ -0,0 +1,582 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static Game.SudokuEngine.ALL;
+import static Game.SudokuEngine.BOX;
+import static Game.SudokuEngine.COL;
+import static Game.SudokuEngine.PEERS;
+import static Game.SudokuEngine.ROW;
+import static Game.SudokuEngine.UNITS;
+
+public class LogicalSolver {
+    public static final double UNSOLVED_RATING = 10.0;
+
+    // Declared in the order they are tried, which is also the order of difficulty
+    public enum Technique {
+        HIDDEN_SINGLE("Hidden single", 1.5),
+        NAKED_SINGLE("Naked single", 2.3),
+        LOCKED_CANDIDATES("Locked candidates", 2.6),
+        NAKED_PAIR("Naked pair", 3.0),
+        X_WING("X-wing", 3.2),
+        HIDDEN_PAIR("Hidden pair", 3.4),
+        NAKED_TRIPLE("Naked triple", 3.6),
+        SWORDFISH("Swordfish", 3.8),
+        HIDDEN_TRIPLE("Hidden triple", 4.0),
+        XY_WING("XY-wing", 4.2),
+        FORCING_CHAIN("Forcing chain", 6.5);
+
+        private final String name;
+        private final double rating;
+
+        Technique(String name, double rating) {
+            this.name = name;
+            this.rating = rating;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public double getRating() {
+            return rating;
+        }
+    }
+
+    public static class Step {
+        private final Technique technique;
+        private final int cell;
+        private final int value;
+        private final int eliminations;
+
+        Step(Technique technique, int cell, int value, int eliminations) {
+            this.technique = technique;
+            this.cell = cell;
+            this.value = value;
+            this.eliminations = eliminations;
+        }
+
+        public Technique getTechnique() {
+            return technique;
+        }
+
+        public int getCell() {
+            return cell;
+        }
+
+        public int getValue() {
+            return value;
+        }
+
+        public int getEliminations() {
+            return eliminations;
+        }
+
+        @Override
+        public String toString() {
+            if (value != 0) {
+                return technique.getName() + ": r" + (ROW[cell] + 1) + "c" + (COL[cell] + 1) + " = " + value;
+            }
+            return technique.getName() + ": " + eliminations + (eliminations == 1 ? " elimination" : " eliminations");
+        }
+    }
+
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private final byte[] cells = new byte[81];
+    private final int[] candidates = new int[81];
+    private final byte[] savedCells = new byte[81];
+    private final int[] savedCandidates = new int[81];
+    private final int[] positions = new int[9];
+    private final int[] counts = new int[TECHNIQUES.length];
+    private final List<Step> steps;
+    private int remaining;
+    private boolean contradiction;
+    private boolean solved;
+    private Technique hardest;
+
+    public LogicalSolver() {
+        this(false);
+    }
+
+    public LogicalSolver(boolean trace) {
+        steps = trace ? new ArrayList<>() : null;
+    }
+
+    public boolean solve(int[][] grid) {
+        return solve(SudokuEngine.toBoard(grid));
+    }
+
+    public boolean solve(byte[] board) {
+        for (int cell = 0; cell < 81; cell++) {
+            cells[cell] = 0;
+            candidates[cell] = ALL;
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = 0;
+        }
+        if (steps != null) {
+            steps.clear();
+        }
+        remaining = 81;
+        contradiction = false;
+        hardest = null;
+
+        for (int cell = 0; cell < 81; cell++) {
+            int value = board[cell];
+            if (value != 0) {
+                if ((candidates[cell] & 1 << (value - 1)) == 0) {
+                    solved = false;
+                    return false;
+                }
+                place(cell, value);
+            }
+        }
+
+        while (remaining > 0 && !contradiction && step()) {
+        }
+        solved = remaining == 0;
+        return solved;
+    }
+
+    private boolean step() {
+        return hiddenSingle()
+                || nakedSingle()
+                || lockedCandidates()
+                || nakedSubset(2, Technique.NAKED_PAIR)
+                || fish(2, Technique.X_WING)
+                || hiddenSubset(2, Technique.HIDDEN_PAIR)
+                || nakedSubset(3, Technique.NAKED_TRIPLE)
+                || fish(3, Technique.SWORDFISH)
+                || hiddenSubset(3, Technique.HIDDEN_TRIPLE)
+                || xyWing()
+                || forcingChain();
+    }
+
+    public boolean isSolved() {
+        return solved;
+    }
+
+    public double getRating() {
+        if (!solved) {
+            return UNSOLVED_RATING;
+        }
+        return hardest == null ? 0 : hardest.getRating();
+    }
+
+    public Technique getHardest() {
+        return hardest;
+    }
+
+    public int getCount(Technique technique) {
+        return counts[technique.ordinal()];
+    }
+
+    public List<Step> getSteps() {
+        return steps == null ? Collections.emptyList() : Collections.unmodifiableList(steps);
+    }
+
+    public void store(byte[] board) {
+        System.arraycopy(cells, 0, board, 0, 81);
+    }
+
+    public int candidates(int cell) {
+        return candidates[cell];
+    }
+
+    private void record(Technique technique, int cell, int value, int eliminations) {
+        counts[technique.ordinal()]++;
+        if (hardest == null || technique.compareTo(hardest) > 0) {
+            hardest = technique;
+        }
+        if (steps != null) {
+            steps.add(new Step(technique, cell, value, eliminations));
+        }
+    }
+
+    private void place(int cell, int value) {
+        cells[cell] = (byte) value;
+        candidates[cell] = 0;
+        int clear = ~(1 << (value - 1));
+        for (int peer : PEERS[cell]) {
+            candidates[peer] &= clear;
+        }
+        remaining--;
+    }
+
+    private static boolean sees(int a, int b) {
+        return ROW[a] == ROW[b] || COL[a] == COL[b] || BOX[a] == BOX[b];
+    }
+
+    private static boolean inUnit(int unit, int cell) {
+        if (unit < 9) {
+            return ROW[cell] == unit;
+        }
+        if (unit < 18) {
+            return COL[cell] == unit - 9;
+        }
+        return BOX[cell] == unit - 18;
+    }
+
+    private boolean hiddenSingle() {
+        boolean found = false;
+        for (int[] unit : UNITS) {
+            int once = 0;
+            int twice = 0;
+            for (int cell : unit) {
+                int c = candidates[cell];
+                twice |= once & c;
+                once |= c;
+            }
+            for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                int bit = hidden & -hidden;
+                for (int cell : unit) {
+                    if ((candidates[cell] & bit) != 0) {
+                        int value = Integer.numberOfTrailingZeros(bit) + 1;
+                        place(cell, value);
+                        record(Technique.HIDDEN_SINGLE, cell, value, 0);
+                        found = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean nakedSingle() {
+        boolean found = false;
+        for (int cell = 0; cell < 81; cell++) {
+            if (cells[cell] == 0) {
+                int c = candidates[cell];
+                if (c == 0) {
+                    contradiction = true;
+                    return false;
+                }
+                if ((c & c - 1) == 0) {
+                    int value = Integer.numberOfTrailingZeros(c) + 1;
+                    place(cell, value);
+                    record(Technique.NAKED_SINGLE, cell, value, 0);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private boolean lockedCandidates() {
+        for (int u = 0; u < 27; u++) {
+            for (int bit = 1; bit < ALL; bit <<= 1) {
+                int first = -1;
+                boolean sameRow = true;
+                boolean sameCol = true;
+                boolean sameBox = true;
+                for (int cell : UNITS[u]) {
+                    if ((candidates[cell] & bit) != 0) {
+                        if (first < 0) {
+                            first = cell;
+                        } else {
+                            sameRow &= ROW[cell] == ROW[first];
+                            sameCol &= COL[cell] == COL[first];
+                            sameBox &= BOX[cell] == BOX[first];
+                        }
+                    }
+                }
+                if (first < 0) {
+                    continue;
+                }
+
+                int eliminated = 0;
+                if (u >= 18) {
+                    if (sameRow) {
+                        eliminated += eliminateOutside(ROW[first], u, bit);
+                    }
+                    if (sameCol) {
+                        eliminated += eliminateOutside(9 + COL[first], u, bit);
+                    }
+                } else if (sameBox) {
+                    eliminated += eliminateOutside(18 + BOX[first], u, bit);
+                }
+                if (eliminated > 0) {
+                    record(Technique.LOCKED_CANDIDATES, -1, 0, eliminated);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int eliminateOutside(int target, int source, int bit) {
+        int eliminated = 0;
+        for (int cell : UNITS[target]) {
+            if ((candidates[cell] & bit) != 0 && !inUnit(source, cell)) {
+                candidates[cell] &= ~bit;
+                eliminated++;
+            }
+        }
+        return eliminated;
+    }
+
+    private boolean nakedSubset(int n, Technique technique) {
+        for (int[] unit : UNITS) {
+            int eliminated = nakedSubset(unit, n, 0, 0, 0, 0);
+            if (eliminated > 0) {
+                record(technique, -1, 0, eliminated);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int nakedSubset(int[] unit, int n, int start, int depth, int union, int chosen) {
+        if (depth == n) {
+            if (Integer.bitCount(union) != n) {
+                return 0;
+            }
+            int eliminated = 0;
+            for (int i = 0; i < 9; i++) {
+                int cell = unit[i];
+                int hit = candidates[cell] & union;
+                if ((chosen & 1 << i) == 0 && hit != 0) {
+                    candidates[cell] &= ~union;
+                    eliminated += Integer.bitCount(hit);
+                }
+            }
+            return eliminated;
+        }
+
+        for (int i = start; i < 9; i++) {
+            int c = candidates[unit[i]];
+            if (c == 0 || Integer.bitCount(union | c) > n) {
+                continue;
+            }
+            int eliminated = nakedSubset(unit, n, i + 1, depth + 1, union | c, chosen | 1 << i);
+            if (eliminated > 0) {
+                return eliminated;
+            }
+        }
+        return 0;
+    }
+
+    private boolean hiddenSubset(int n, Technique technique) {
+        for (int[] unit : UNITS) {
+            for (int d = 0; d < 9; d++) {
+                positions[d] = 0;
+            }
+            for (int i = 0; i < 9; i++) {
+                for (int c = candidates[unit[i]]; c != 0; c &= c - 1) {
+                    positions[Integer.numberOfTrailingZeros(c)] |= 1 << i;
+                }
+            }
+            int eliminated = hiddenSubset(unit, n, 0, 0, 0, 0);
+            if (eliminated > 0) {
+                record(technique, -1, 0, eliminated);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int hiddenSubset(int[] unit, int n, int start, int depth, int union, int digits) {
+        if (depth == n) {
+            if (Integer.bitCount(union) != n) {
+                return 0;
+            }
+            int eliminated = 0;
+            for (int p = union; p != 0; p &= p - 1) {
+                int cell = unit[Integer.numberOfTrailingZeros(p)];
+                int hit = candidates[cell] & ~digits;
+                if (hit != 0) {
+                    candidates[cell] &= digits;
+                    eliminated += Integer.bitCount(hit);
+                }
+            }
+            return eliminated;
+        }
+
+        for (int d = start; d < 9; d++) {
+            int p = positions[d];
+            if (p == 0 || Integer.bitCount(union | p) > n) {
+                continue;
+            }
+            int eliminated = hiddenSubset(unit, n, d + 1, depth + 1, union | p, digits | 1 << d);
+            if (eliminated > 0) {
+                return eliminated;
+            }
+        }
+        return 0;
+    }
+
+    private boolean fish(int n, Technique technique) {
+        for (int bit = 1; bit < ALL; bit <<= 1) {
+            for (int byColumn = 0; byColumn < 2; byColumn++) {
+                for (int line = 0; line < 9; line++) {
+                    int mask = 0;
+                    for (int i = 0; i < 9; i++) {
+                        if ((candidates[fishCell(byColumn, line, i)] & bit) != 0) {
+                            mask |= 1 << i;
+                        }
+                    }
+                    positions[line] = mask;
+                }
+                int eliminated = fish(n, bit, byColumn, 0, 0, 0, 0);
+                if (eliminated > 0) {
+                    record(technique, -1, 0, eliminated);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int fish(int n, int bit, int byColumn, int start, int depth, int union, int base) {
+        if (depth == n) {
+            if (Integer.bitCount(union) != n) {
+                return 0;
+            }
+            int eliminated = 0;
+            for (int p = union; p != 0; p &= p - 1) {
+                int cross = Integer.numberOfTrailingZeros(p);
+                for (int line = 0; line < 9; line++) {
+                    int cell = fishCell(byColumn, line, cross);
+                    if ((base & 1 << line) == 0 && (candidates[cell] & bit) != 0) {
+                        candidates[cell] &= ~bit;
+                        eliminated++;
+                    }
+                }
+            }
+            return eliminated;
+        }
+
+        for (int line = start; line < 9; line++) {
+            int p = positions[line];
+            if (Integer.bitCount(p) < 2 || Integer.bitCount(union | p) > n) {
+                continue;
+            }
+            int eliminated = fish(n, bit, byColumn, line + 1, depth + 1, union | p, base | 1 << line);
+            if (eliminated > 0) {
+                return eliminated;
+            }
+        }
+        return 0;
+    }
+
+    private static int fishCell(int byColumn, int line, int i) {
+        return byColumn == 0 ? line * 9 + i : i * 9 + line;
+    }
+
+    private boolean xyWing() {
+        for (int pivot = 0; pivot < 81; pivot++) {
+            int xy = candidates[pivot];
+            if (Integer.bitCount(xy) != 2) {
+                continue;
+            }
+            for (int a : PEERS[pivot]) {
+                int xz = candidates[a];
+                if (Integer.bitCount(xz) != 2 || Integer.bitCount(xz & xy) != 1) {
+                    continue;
+                }
+                int z = xz & ~xy;
+                int yz = xy & ~xz | z;
+                for (int b : PEERS[pivot]) {
+                    if (candidates[b] != yz) {
+                        continue;
+                    }
+                    int eliminated = 0;
+                    for (int cell : PEERS[a]) {
+                        if (cell != b && (candidates[cell] & z) != 0 && sees(cell, b)) {
+                            candidates[cell] &= ~z;
+                            eliminated++;
+                        }
+                    }
+                    if (eliminated > 0) {
+                        record(Technique.XY_WING, pivot, 0, eliminated);
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    // Tries each value of every two-candidate cell and follows the singles it forces;
+    // a value that leads to a contradiction is eliminated
+    private boolean forcingChain() {
+        for (int cell = 0; cell < 81; cell++) {
+            int c = candidates[cell];
+            if (Integer.bitCount(c) != 2) {
+                continue;
+            }
+            for (int bits = c; bits != 0; bits &= bits - 1) {
+                int bit = bits & -bits;
+                if (leadsToContradiction(cell, Integer.numberOfTrailingZeros(bit) + 1)) {
+                    candidates[cell] &= ~bit;
+                    record(Technique.FORCING_CHAIN, cell, 0, 1);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean leadsToContradiction(int cell, int value) {
+        System.arraycopy(cells, 0, savedCells, 0, 81);
+        System.arraycopy(candidates, 0, savedCandidates, 0, 81);
+        int savedRemaining = remaining;
+
+        place(cell, value);
+        boolean result = !propagateSingles();
+
+        System.arraycopy(savedCells, 0, cells, 0, 81);
+        System.arraycopy(savedCandidates, 0, candidates, 0, 81);
+        remaining = savedRemaining;
+        return result;
+    }
+
+    private boolean propagateSingles() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int cell = 0; cell < 81; cell++) {
+                if (cells[cell] == 0) {
+                    int c = candidates[cell];
+                    if (c == 0) {
+                        return false;
+                    }
+                    if ((c & c - 1) == 0) {
+                        place(cell, Integer.numberOfTrailingZeros(c) + 1);
+                        changed = true;
+                    }
+                }
+            }
+
+            for (int[] unit : UNITS) {
+                int placed = 0;
+                int once = 0;
+                int twice = 0;
+                for (int cell : unit) {
+                    int c = candidates[cell];
+                    placed |= (1 << cells[cell]) >> 1;
+                    twice |= once & c;
+                    once |= c;
+                }
+                if ((placed | once) != ALL) {
+                    return false;
+                }
+                for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                    int bit = hidden & -hidden;
+                    for (int cell : unit) {
+                        if ((candidates[cell] & bit) != 0) {
+                            place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,124 @@
+package Game;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MappedPuzzleReader implements Closeable {
+    public static final int END = -1;
+    public static final int INVALID = 0;
+    public static final int PUZZLE = 1;
+
+    private static final long MAX_CHUNK_BYTES = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final long size;
+
+    public MappedPuzzleReader(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        size = channel.size();
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public List<Chunk> split(int count) throws IOException {
+        return splitBySize(Math.max(1, (size + count - 1) / Math.max(count, 1)));
+    }
+
+    public List<Chunk> splitBySize(long chunkBytes) throws IOException {
+        chunkBytes = Math.max(1, Math.min(chunkBytes, MAX_CHUNK_BYTES - 1024));
+        List<Chunk> chunks = new ArrayList<>();
+        long start = 0;
+        while (start < size) {
+            long end = alignToLine(Math.min(size, start + chunkBytes));
+            if (end - start > MAX_CHUNK_BYTES) {
+                throw new IOException("Line too long near offset " + start);
+            }
+            chunks.add(new Chunk(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    private long alignToLine(long position) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(256);
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position - 1);
+            for (int i = 0; i < read; i++) {
+                if (window.get(i) == '\n') {
+                    return position + i;
+                }
+            }
+            position += Math.max(read, 1);
+        }
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    public class Chunk {
+        private final long start;
+        private final long end;
+        private MappedByteBuffer buffer;
+        private int position;
+
+        private Chunk(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public long getEnd() {
+            return end;
+        }
+
+        public int next(byte[] board) throws IOException {
+            if (buffer == null) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            }
+
+            int limit = buffer.limit();
+            while (position < limit) {
+                int from = position;
+                int to = from;
+                while (to < limit && buffer.get(to) != '\n') {
+                    to++;
+                }
+                position = to + 1;
+
+                while (from < to && isWhitespace(buffer.get(from))) {
+                    from++;
+                }
+                // Only the first field is the puzzle; generated banks append seed and rating
+                int end = from;
+                while (end < to && !isWhitespace(buffer.get(end))) {
+                    end++;
+                }
+                to = end;
+                if (from < to) {
+                    return PuzzleFormat.parse(buffer, from, to, board) ? PUZZLE : INVALID;
+                }
+            }
+            return END;
+        }
+
+        private boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\t' || b == '\r';
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package Game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Splits the search tree across a fork/join pool. Branching stops once the estimated number
+// of leaf tasks reaches targetTasks, so a wide first branch is not over-split and a chain of
+// binary choices keeps splitting until every worker has several subtrees to steal.
+public class ParallelSolver {
+    public static final int TASKS_PER_THREAD = 8;
+
+    private final ForkJoinPool pool;
+    private final int targetTasks;
+
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), Integer.getInteger("sudoku.parallel.tasks", 0));
+    }
+
+    // targetTasks <= 0 sizes the split from the pool's parallelism
+    public ParallelSolver(ForkJoinPool pool, int targetTasks) {
+        this.pool = pool;
+        this.targetTasks = targetTasks > 0 ? targetTasks : pool.getParallelism() * TASKS_PER_THREAD;
+    }
+
+    public boolean solve(int[][] puzzle) {
+        return solve(puzzle, null);
+    }
+
+    public boolean solve(int[][] puzzle, SolverStats stats) {
+        byte[] board = SudokuEngine.toBoard(puzzle);
+        if (solve(board, stats)) {
+            for (int cell = 0; cell < 81; cell++) {
+                puzzle[SudokuEngine.ROW[cell]][SudokuEngine.COL[cell]] = board[cell];
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean solve(byte[] board) {
+        return solve(board, null);
+    }
+
+    // Each leaf counts into its own stats, merged into the caller's when the leaf finishes
+    public boolean solve(byte[] board, SolverStats stats) {
+        byte[] solution = pool.invoke(new SolveTask(board.clone(), 0, 1, new AtomicBoolean(), stats));
+        if (solution == null) {
+            return false;
+        }
+        System.arraycopy(solution, 0, board, 0, 81);
+        return true;
+    }
+
+    public long countSolutions(byte[] board, long limit) {
+        AtomicLong total = new AtomicLong();
+        pool.invoke(new CountTask(board.clone(), 1, limit, total, new AtomicBoolean()));
+        return Math.min(total.get(), limit);
+    }
+
+    private List<byte[]> branch(SudokuEngine engine) {
+        List<byte[]> children = new ArrayList<>();
+        if (!engine.propagate()) {
+            return children;
+        }
+
+        int cell = engine.mostConstrainedCell();
+        byte[] board = new byte[81];
+        engine.store(board);
+        if (cell < 0) {
+            children.add(board);
+            return children;
+        }
+
+        for (int candidates = engine.candidates(cell); candidates != 0; candidates &= candidates - 1) {
+            byte[] child = board.clone();
+            child[cell] = (byte) (Integer.numberOfTrailingZeros(candidates) + 1);
+            children.add(child);
+        }
+        return children;
+    }
+
+    private static boolean isComplete(byte[] board) {
+        for (byte value : board) {
+            if (value == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private class SolveTask extends RecursiveTask<byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] board;
+        private final int depth;
+        // Estimated number of tasks at this level: the product of the branching factors above it
+        private final long width;
+        private final AtomicBoolean found;
+        private final SolverStats stats;
+
+        SolveTask(byte[] board, int depth, long width, AtomicBoolean found, SolverStats stats) {
+            this.board = board;
+            this.depth = depth;
+            this.width = width;
+            this.found = found;
+            this.stats = stats;
+        }
+
+        @Override
+        protected byte[] compute() {
+            if (found.get()) {
+                return null;
+            }
+
+            SudokuEngine engine = SudokuEngine.local();
+            if (!engine.load(board)) {
+                return null;
+            }
+
+            if (width >= targetTasks) {
+                SolverStats leaf = stats == null ? null : new SolverStats();
+                engine.setCancelFlag(found);
+                engine.setStats(leaf);
+                try {
+                    if (engine.solveMrv() && found.compareAndSet(false, true)) {
+                        engine.store(board);
+                        return board;
+                    }
+                    return null;
+                } finally {
+                    engine.setCancelFlag(null);
+                    engine.setStats(null);
+                    merge(leaf);
+                }
+            }
+
+            List<byte[]> children = branch(engine);
+            merge(null);
+            if (children.size() == 1 && isComplete(children.get(0))) {
+                return found.compareAndSet(false, true) ? children.get(0) : null;
+            }
+
+            List<SolveTask> tasks = new ArrayList<>();
+            for (byte[] child : children) {
+                tasks.add(new SolveTask(child, depth + 1, width * children.size(), found, stats));
+            }
+            for (SolveTask task : invokeAll(tasks)) {
+                byte[] solution = task.join();
+                if (solution != null) {
+                    return solution;
+                }
+            }
+            return null;
+        }
+
+        // Adds a leaf's search below this task's depth, or just this splitting node when leaf is null
+        private void merge(SolverStats leaf) {
+            if (stats == null) {
+                return;
+            }
+            synchronized (stats) {
+                stats.enter(depth);
+                if (leaf != null) {
+                    stats.nodes += leaf.nodes - 1;
+                    stats.backtracks += leaf.backtracks;
+                    stats.propagationRounds += leaf.propagationRounds;
+                    stats.maxDepth = Math.max(stats.maxDepth, depth + leaf.maxDepth);
+                }
+            }
+        }
+    }
+
+    private class CountTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] board;
+        private final long width;
+        private final long limit;
+        private final AtomicLong total;
+        private final AtomicBoolean done;
+
+        CountTask(byte[] board, long width, long limit, AtomicLong total, AtomicBoolean done) {
+            this.board = board;
+            this.width = width;
+            this.limit = limit;
+            this.total = total;
+            this.done = done;
+        }
+
+        @Override
+        protected void compute() {
+            if (done.get()) {
+                return;
+            }
+
+            SudokuEngine engine = SudokuEngine.local();
+            if (!engine.load(board)) {
+                return;
+            }
+
+            if (width >= targetTasks) {
+                engine.setCancelFlag(done);
+                try {
+                    long remaining = limit - total.get();
+                    add(engine.countSolutions((int) Math.min(Integer.MAX_VALUE, Math.max(remaining, 0))));
+                } finally {
+                    engine.setCancelFlag(null);
+                }
+                return;
+            }
+
+            List<byte[]> children = branch(engine);
+            if (children.size() == 1 && isComplete(children.get(0))) {
+                add(1);
+                return;
+            }
+
+            List<CountTask> tasks = new ArrayList<>();
+            for (byte[] child : children) {
+                tasks.add(new CountTask(child, width * children.size(), limit, total, done));
+            }
+            invokeAll(tasks);
+        }
+
+        private void add(long count) {
+            if (total.addAndGet(count) >= limit) {
+                done.set(true);
+            }
+        }
+    }
+}
@@ -6,7 +6,10 @@ import javax.swing.event.DocumentListener;
 import java.awt.*;
 import java.awt.event.*;
 import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.Random;
+import java.util.concurrent.ExecutionException;
 
 public class PlaySudoku extends JPanel {
     private JTextField[][] Board;
@@ -21,13 +24,23 @@ public class PlaySudoku extends JPanel {
 
     private JLabel livesIdLabel;
 
-    private SudokuGenerator generator;
+    private PuzzlePool pool;
+
+    // The puzzle being fetched in the background; a newer request or game replaces it
+    private SwingWorker<Puzzle, Void> loading;
+
+    private PuzzleId puzzleId;
+
+    private int bankId;
+
+    // Cleared from the loading thread when the database turns out to be unreachable
+    private volatile boolean bankAvailable = true;
 
     private SudokuSolver solver;
 
-    private int[][] puzzle;
+    private GameState game;
 
-    private int[][] solution;
+    private final int[] changedCells = new int[81];
 
     private int score = 0;
 
@@ -47,8 +60,6 @@ public class PlaySudoku extends JPanel {
 
     private int lives;
 
-    private String[][] temp;
-
     public PlaySudoku(String username, JFrame mainFrame) {
         this.username = username;
         setLayout(new BorderLayout());
@@ -88,6 +99,7 @@ public class PlaySudoku extends JPanel {
                     textField.setBorder(BorderFactory.createMatteBorder(1, 1, 0, 0, Color.BLACK));
                 }
 
+                int cell = i * 9 + j;
                 textField.addKeyListener(new KeyAdapter() {
                     @Override
                     public void keyReleased(KeyEvent e) {
@@ -98,9 +110,12 @@ public class PlaySudoku extends JPanel {
                         }
 
                         if (e.getKeyChar() >= '1' && e.getKeyChar() <= '9') {
-                            checkCurrentInput();
+                            checkCurrentInput(cell);
                         } else {
                             textField.setText("");
+                            if (puzzleGenerated) {
+                                checkCurrentInput(cell);
+                            }
                         }
                     }
                 });
@@ -110,7 +125,6 @@ public class PlaySudoku extends JPanel {
                         if (puzzleGenerated && startTime == 0) {
                             startTime = System.currentTimeMillis();
                         }
-                        clearCellHighlights();
                     }
 
                     public void removeUpdate(DocumentEvent e) {
@@ -128,6 +142,12 @@ public class PlaySudoku extends JPanel {
         JButton generate = new JButton("Generate");
         styleButton(generate);
 
+        JButton daily = new JButton("Daily");
+        styleButton(daily);
+
+        JButton openId = new JButton("Open ID");
+        styleButton(openId);
+
         hintBtn = new JButton("Hint: " + hint);
         styleButton(hintBtn);
 
@@ -145,19 +165,21 @@ public class PlaySudoku extends JPanel {
         });
 
         ButtonPanel.add(generate);
+        ButtonPanel.add(daily);
+        ButtonPanel.add(openId);
         ButtonPanel.add(hintBtn);
         ButtonPanel.add(backButton);
 
-        generator = new SudokuGenerator();
+        pool = PuzzlePool.shared();
         solver = new SudokuSolver();
 
         generate.addActionListener(e -> generatePuzzle());
+        daily.addActionListener(e -> dailyPuzzle());
+        openId.addActionListener(e -> openPuzzleId());
 
         hintBtn.addActionListener(new ActionListener() {
             public void actionPerformed(ActionEvent e) {
                 if (puzzleGenerated && hint > 0) {
-                    clearCellHighlights();
-
                     boolean filledGrid = false;
 
                     Random rand = new Random();
@@ -165,15 +187,16 @@ public class PlaySudoku extends JPanel {
                     while (!filledGrid) {
                         int row = rand.nextInt(9);
                         int col = rand.nextInt(9);
+                        int cell = row * 9 + col;
 
-                        if (Board[row][col].getText().isEmpty()) {
-                            Board[row][col].setText(String.valueOf(solution[row][col]));
+                        if (game.get(cell) == 0) {
+                            Board[row][col].setText(String.valueOf(game.getSolution(cell)));
                             Board[row][col].setEditable(false);
-                            Board[row][col].setBackground(Color.GREEN);
                             hint--;
                             hintBtn.setText("Hint: " + hint);
                             filledGrid = true;
-                            checkCurrentInput();
+                            checkCurrentInput(cell);
+                            Board[row][col].setBackground(Color.GREEN);
                         }
                     }
 
@@ -190,49 +213,34 @@ public class PlaySudoku extends JPanel {
         add(ButtonPanel, BorderLayout.SOUTH);
     }
 
-    private void checkCurrentInput() {
+    // Applies the edit of one cell to the game state and repaints only the cells it changed
+    private void checkCurrentInput(int cell) {
         if (puzzleGenerated) {
+            String text = Board[cell / 9][cell % 9].getText();
+            char digit = text.isEmpty() ? '0' : text.charAt(0);
+            boolean mistake = game.set(cell, digit >= '1' && digit <= '9' ? digit - '0' : 0);
+            renderChanges();
 
-            boolean correct = true;
-
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    String value = Board[i][j].getText();
-
-                    if (!value.isEmpty()) {
-                        if (!value.equals(String.valueOf(solution[i][j]))) {
-                            Board[i][j].setBackground(Color.RED);
-                            correct = false;
-
-                            if (temp[i][j] == null || !temp[i][j].equals(value)) {
-                                temp[i][j] = value;
-                                lives--;
-                                livesIdLabel.setText("Lives: " + lives);
-
-                                if (lives == 0) {
-                                    gameTimer.stop();
+            if (mistake) {
+                lives--;
+                livesIdLabel.setText("Lives: " + lives);
 
-                                    puzzleGenerated = false;
+                if (lives == 0) {
+                    gameTimer.stop();
 
-                                    JOptionPane.showMessageDialog(PlaySudoku.this,
-                                            "You've run out of lives. Try Again!!!",
-                                            "Game Over",
-                                            JOptionPane.INFORMATION_MESSAGE);
+                    puzzleGenerated = false;
 
-                                    disableGameBoard();
+                    JOptionPane.showMessageDialog(PlaySudoku.this,
+                            "You've run out of lives. Try Again!!!",
+                            "Game Over",
+                            JOptionPane.INFORMATION_MESSAGE);
 
-                                }
-                            }
-                        } // else {
-                          // Board[i][j].setBackground(Color.WHITE);
-                          // }
-                    } else {
-                        correct = false;
-                    }
+                    disableGameBoard();
+                    return;
                 }
             }
 
-            if (correct) {
+            if (game.isComplete()) {
                 long elapsedTime = System.currentTimeMillis() - startTime;
                 long seconds = (elapsedTime / 1000) % 60;
                 long minutes = (elapsedTime / (1000 * 60)) % 60;
@@ -264,7 +272,7 @@ public class PlaySudoku extends JPanel {
                         JOptionPane.INFORMATION_MESSAGE);
                 try {
                     SudokuDatabase database = new SudokuDatabase();
-                    database.saveScore(username, score, (int) (timeTaken / 1000), selectedOption);
+                    database.saveScore(username, score, (int) (timeTaken / 1000), selectedOption, bankId);
                     database.close();
                 } catch (SQLException ex) {
                     ex.printStackTrace();
@@ -278,6 +286,18 @@ public class PlaySudoku extends JPanel {
         }
     }
 
+    private void renderChanges() {
+        int count = game.takeDirty(changedCells);
+        for (int k = 0; k < count; k++) {
+            int cell = changedCells[k];
+            JTextField field = Board[cell / 9][cell % 9];
+            Color color = game.isWrong(cell) ? Color.RED : game.hasConflict(cell) ? Color.PINK : Color.WHITE;
+            if (!color.equals(field.getBackground())) {
+                field.setBackground(color);
+            }
+        }
+    }
+
     private void disableGameBoard() {
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
@@ -287,7 +307,105 @@ public class PlaySudoku extends JPanel {
     }
 
     private void generatePuzzle() {
+        if (!confirmNewGame()) {
+            return;
+        }
+
+        String option = chooseDifficulty();
+        if (option != null) {
+            loadPuzzle(option, null);
+        }
+    }
+
+    // Regenerates the puzzle for id, or with no id asks the bank, then the pool. Runs off the
+    // event thread, so neither generation, a slow database nor an empty pool freezes the window
+    private void loadPuzzle(String option, PuzzleId id) {
+        int difficulty = getDifficultyFromOption(option);
+        puzzleIdLabel.setText("Difficulty Level: " + option + "    Generating puzzle...");
+        loading = new SwingWorker<Puzzle, Void>() {
+            @Override
+            protected Puzzle doInBackground() throws Exception {
+                if (id != null) {
+                    return id.generate();
+                }
+                Puzzle next = drawFromBank(option);
+                return next != null ? next : pool.takeAsync(difficulty).get();
+            }
+
+            @Override
+            protected void done() {
+                if (loading != this) {
+                    return;
+                }
+                loading = null;
+                try {
+                    Puzzle next = get();
+                    if (id != null) {
+                        startGame(option, id, next);
+                    } else {
+                        startGame(option, next.getBankId() != 0 ? null : new PuzzleId(option, next.getSeed()), next);
+                    }
+                } catch (InterruptedException | ExecutionException ex) {
+                    ex.printStackTrace();
+                    puzzleIdLabel.setText("Difficulty Level: " + option + "    Puzzle could not be generated");
+                }
+            }
+        };
+        loading.execute();
+    }
+
+    // A stored puzzle this user has not finished yet, or null to generate one instead
+    private Puzzle drawFromBank(String option) {
+        if (!bankAvailable) {
+            return null;
+        }
+        try {
+            PuzzleBank bank = new PuzzleBank();
+            try {
+                return bank.pick(username, option);
+            } finally {
+                bank.close();
+            }
+        } catch (SQLException ex) {
+            // No database or no puzzles table; generate puzzles for the rest of the session
+            System.out.println("Puzzle bank unavailable: " + ex.getMessage());
+            bankAvailable = false;
+            return null;
+        }
+    }
+
+    private void dailyPuzzle() {
+        if (!confirmNewGame()) {
+            return;
+        }
 
+        String option = chooseDifficulty();
+        if (option != null) {
+            PuzzleId id = PuzzleId.daily(LocalDate.now(ZoneOffset.UTC), PuzzleId.level(option));
+            loadPuzzle(id.getLevelName(), id);
+        }
+    }
+
+    private void openPuzzleId() {
+        String text = JOptionPane.showInputDialog(PlaySudoku.this, "Enter puzzle ID:", "Open Puzzle",
+                JOptionPane.QUESTION_MESSAGE);
+        if (text == null) {
+            return;
+        }
+
+        PuzzleId id;
+        try {
+            id = PuzzleId.parse(text);
+        } catch (IllegalArgumentException ex) {
+            JOptionPane.showMessageDialog(PlaySudoku.this, ex.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        if (confirmNewGame()) {
+            loadPuzzle(id.getLevelName(), id);
+        }
+    }
+
+    private boolean confirmNewGame() {
         if (puzzleGenerated) {
             int confirm = JOptionPane.showConfirmDialog(PlaySudoku.this,
                     "A game is already in progress. Are you sure you want to create new puzzle?",
@@ -295,62 +413,66 @@ public class PlaySudoku extends JPanel {
                     JOptionPane.YES_NO_OPTION);
 
             if (confirm == JOptionPane.NO_OPTION) {
-                return;
+                return false;
             } else {
                 gameTimer.stop();
                 puzzleGenerated = false;
             }
         }
+        return true;
+    }
 
-        String[] options = { "Easy", "Medium", "Hard", "Nightmare" };
-        selectedOption = (String) JOptionPane.showInputDialog(
+    private String chooseDifficulty() {
+        return (String) JOptionPane.showInputDialog(
                 PlaySudoku.this,
                 "Choose difficulty level:",
                 "Difficulty Level",
                 JOptionPane.QUESTION_MESSAGE,
                 null,
-                options,
-                options[0]);
-
-        if (selectedOption != null) {
-            currentDifficulty = getDifficultyFromOption(selectedOption);
-
-            generator.generate(currentDifficulty);
-            puzzle = generator.getPuzzle();
-            solution = generator.getSolution();
-
-            puzzleIdLabel.setText("Difficulty Level: " + selectedOption);
-            populateBoardWithPuzzle();
-            startTime = System.currentTimeMillis();
-            temp = new String[9][9];
-            puzzleGenerated = true;
-
-            if (selectedOption.equals("Nightmare")) {
-                lives = 1;
-                hint = 0;
-                hintBtn.setText("Hint: " + hint);
-                hintBtn.setEnabled(false);
-            } else {
-                hint = 3;
-                lives = 3;
-                hintBtn.setText("Hint: " + hint);
-                hintBtn.setEnabled(true);
-            }
-            livesIdLabel.setText("Lives: " + lives);
-
-            gameTimer = new Timer(1000, new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    if (startTime != 0) {
-                        long elapsedTime = System.currentTimeMillis() - startTime;
-                        long seconds = (elapsedTime / 1000) % 60;
-                        long minutes = (elapsedTime / (1000 * 60)) % 60;
-                        long hours = (elapsedTime / (1000 * 60 * 60)) % 24;
-                        timerLabel.setText(String.format("%02d:%02d:%02d", hours, minutes, seconds));
-                    }
-                }
-            });
-            gameTimer.start();
+                PuzzleId.LEVELS,
+                PuzzleId.LEVELS[0]);
+    }
+
+    // id is null for a puzzle drawn from the bank, which is identified by its bank row instead
+    private void startGame(String option, PuzzleId id, Puzzle next) {
+        loading = null;
+        puzzleId = id;
+        bankId = next.getBankId();
+        selectedOption = option;
+        currentDifficulty = next.getDifficulty();
+        game = new GameState(next.getBoard(), next.getSolution());
+
+        puzzleIdLabel.setText("Difficulty Level: " + selectedOption + "    Puzzle ID: "
+                + (puzzleId != null ? puzzleId.toString() : "#" + bankId));
+        populateBoardWithPuzzle();
+        startTime = System.currentTimeMillis();
+        puzzleGenerated = true;
+
+        if (selectedOption.equals("Nightmare")) {
+            lives = 1;
+            hint = 0;
+            hintBtn.setText("Hint: " + hint);
+            hintBtn.setEnabled(false);
+        } else {
+            hint = 3;
+            lives = 3;
+            hintBtn.setText("Hint: " + hint);
+            hintBtn.setEnabled(true);
         }
+        livesIdLabel.setText("Lives: " + lives);
+
+        gameTimer = new Timer(1000, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (startTime != 0) {
+                    long elapsedTime = System.currentTimeMillis() - startTime;
+                    long seconds = (elapsedTime / 1000) % 60;
+                    long minutes = (elapsedTime / (1000 * 60)) % 60;
+                    long hours = (elapsedTime / (1000 * 60 * 60)) % 24;
+                    timerLabel.setText(String.format("%02d:%02d:%02d", hours, minutes, seconds));
+                }
+            }
+        });
+        gameTimer.start();
     }
 
     private int getDifficultyFromOption(String option) {
@@ -371,16 +493,9 @@ public class PlaySudoku extends JPanel {
     private void populateBoardWithPuzzle() {
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
-                int value = puzzle[i][j];
+                int value = game.get(i * 9 + j);
                 Board[i][j].setText(value != 0 ? String.valueOf(value) : "");
                 Board[i][j].setEditable(value == 0);
-            }
-        }
-    }
-
-    private void clearCellHighlights() {
-        for (int i = 0; i < 9; i++) {
-            for (int j = 0; j < 9; j++) {
                 Board[i][j].setBackground(Color.WHITE);
             }
         }
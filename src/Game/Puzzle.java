@@ -0,0 +1,53 @@
+package Game;
+
+public class Puzzle {
+    private final byte[] board;
+    private final byte[] solution;
+    private final int difficulty;
+    private final long seed;
+    private final double rating;
+    private final int bankId;
+
+    public Puzzle(byte[] board, byte[] solution, int difficulty, long seed, double rating) {
+        this(board, solution, difficulty, seed, rating, 0);
+    }
+
+    public Puzzle(byte[] board, byte[] solution, int difficulty, long seed, double rating, int bankId) {
+        this.board = board;
+        this.solution = solution;
+        this.difficulty = difficulty;
+        this.seed = seed;
+        this.rating = rating;
+        this.bankId = bankId;
+    }
+
+    public static Puzzle from(SudokuGenerator generator, int difficulty) {
+        return new Puzzle(generator.getPuzzleBoard().clone(), generator.getSolutionBoard().clone(), difficulty,
+                generator.getSeed(), generator.getRating());
+    }
+
+    public byte[] getBoard() {
+        return board;
+    }
+
+    public byte[] getSolution() {
+        return solution;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    // Row id in the puzzles table, or 0 if the puzzle was generated
+    public int getBankId() {
+        return bankId;
+    }
+}
@@ -0,0 +1,214 @@
+package Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Stored puzzles in the puzzles table. Each row carries a random shuffle key, and a pick seeks
+// the (difficulty, shuffle) index from a random point, so it costs one index probe however big
+// the bank is. Equivalent puzzles share a canonical hash, so each one is only stored once; the
+// hash uses the exact canonical form, with no search budget, so no duplicate slips through.
+public class PuzzleBank {
+    public static final int BATCH_SIZE = 1000;
+
+    private static final String INSERT = "INSERT IGNORE INTO puzzles "
+            + "(grid, solution, rating, difficulty, canonical_hash, shuffle) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String PICK = "SELECT id, grid, solution, rating FROM puzzles p "
+            + "WHERE difficulty = ? AND shuffle >= ? "
+            + "AND NOT EXISTS (SELECT 1 FROM scores s WHERE s.username = ? AND s.puzzle_id = p.id) "
+            + "ORDER BY shuffle LIMIT 1";
+
+    private final Connection connection;
+    private final DancingLinksSolver checker = new DancingLinksSolver();
+    private final LogicalSolver grader = new LogicalSolver();
+    private final MessageDigest digest;
+    private PreparedStatement insert;
+    private int pending;
+    private long added;
+    private long duplicates;
+    private long invalid;
+
+    public PuzzleBank() throws SQLException {
+        connection = JdbcConn.getConnection();
+        try {
+            digest = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public static void main(String[] args) throws IOException, SQLException {
+        if (args.length < 1) {
+            System.err.println("Usage: PuzzleBank bank.txt");
+            System.exit(1);
+        }
+
+        long start = System.nanoTime();
+        PuzzleBank bank = new PuzzleBank();
+        try {
+            bank.load(args[0]);
+        } finally {
+            bank.close();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("Added: %d  Duplicates: %d  Invalid: %d%n", bank.added, bank.duplicates, bank.invalid);
+        System.err.printf("Time: %.3f s  Throughput: %.0f puzzles/sec%n", seconds, bank.added / seconds);
+    }
+
+    // Reads lines in BulkGenerator's format; only the puzzle field is required
+    public void load(String path) throws IOException, SQLException {
+        byte[] board = new byte[81];
+        try (BufferedReader reader = Files.newBufferedReader(Paths.get(path), StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.trim().split("\\s+");
+                if (!PuzzleFormat.parse(fields[0], board)) {
+                    invalid++;
+                    continue;
+                }
+                try {
+                    int difficulty = fields.length > 2 ? Integer.parseInt(fields[2]) : clues(board);
+                    double rating = fields.length > 3 ? Double.parseDouble(fields[3]) : -1;
+                    if (!add(board, difficulty, rating)) {
+                        invalid++;
+                    }
+                } catch (NumberFormatException e) {
+                    invalid++;
+                }
+            }
+        }
+        flush();
+    }
+
+    // Queues a puzzle for the next batch; a negative rating means grade it here
+    public boolean add(byte[] board, int difficulty, double rating) throws SQLException {
+        byte[] solution = board.clone();
+        if (checker.countSolutions(board, 2) != 1 || !checker.solve(solution)) {
+            return false;
+        }
+        if (rating < 0) {
+            grader.solve(board);
+            rating = grader.getRating();
+        }
+
+        if (insert == null) {
+            connection.setAutoCommit(false);
+            insert = connection.prepareStatement(INSERT);
+        }
+        insert.setBytes(1, PuzzleFormat.pack(board));
+        insert.setBytes(2, PuzzleFormat.pack(solution));
+        insert.setDouble(3, rating);
+        insert.setString(4, tier(difficulty));
+        insert.setBytes(5, digest.digest(CanonicalForm.exact(board).getBoard()));
+        insert.setInt(6, ThreadLocalRandom.current().nextInt());
+        insert.addBatch();
+        if (++pending == BATCH_SIZE) {
+            flush();
+        }
+        return true;
+    }
+
+    // INSERT IGNORE reports 0 for a row dropped as a duplicate, so only counted rows were added
+    public void flush() throws SQLException {
+        if (pending > 0) {
+            long inserted = 0;
+            boolean unknown = false;
+            for (int count : insert.executeBatch()) {
+                if (count >= 0) {
+                    inserted += count;
+                } else {
+                    unknown = true;
+                }
+            }
+            if (unknown) {
+                // A rewritten batch runs as one multi-row INSERT with no per-row counts
+                inserted = rowCount();
+            }
+            connection.commit();
+            added += inserted;
+            duplicates += pending - inserted;
+            pending = 0;
+        }
+    }
+
+    private long rowCount() throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement("SELECT ROW_COUNT()");
+                ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? Math.max(rs.getLong(1), 0) : 0;
+        }
+    }
+
+    // A random stored puzzle of this tier that the user has not finished, or null if there is none
+    public Puzzle pick(String username, String difficulty) throws SQLException {
+        int from = ThreadLocalRandom.current().nextInt();
+        Puzzle puzzle = pick(username, difficulty, from);
+        // Nothing after the random start point, so wrap around to the beginning
+        return puzzle != null ? puzzle : pick(username, difficulty, Integer.MIN_VALUE);
+    }
+
+    private Puzzle pick(String username, String difficulty, int from) throws SQLException {
+        try (PreparedStatement stmt = connection.prepareStatement(PICK)) {
+            stmt.setString(1, difficulty);
+            stmt.setInt(2, from);
+            stmt.setString(3, username);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                byte[] board = new byte[81];
+                byte[] solution = new byte[81];
+                PuzzleFormat.unpack(rs.getBytes("grid"), board);
+                PuzzleFormat.unpack(rs.getBytes("solution"), solution);
+                return new Puzzle(board, solution, PuzzleId.DIFFICULTIES[PuzzleId.level(difficulty)], 0,
+                        rs.getDouble("rating"), rs.getInt("id"));
+            }
+        }
+    }
+
+    // Tier name as used in the scores table
+    public static String tier(int difficulty) {
+        if (difficulty <= SudokuGenerator.MINIMAL) {
+            return "Nightmare";
+        } else if (difficulty >= SudokuGenerator.EASY) {
+            return "Easy";
+        } else if (difficulty >= SudokuGenerator.MEDIUM) {
+            return "Medium";
+        }
+        return "Hard";
+    }
+
+    private static int clues(byte[] board) {
+        int clues = 0;
+        for (byte value : board) {
+            if (value != 0) {
+                clues++;
+            }
+        }
+        return clues;
+    }
+
+    public long getAdded() {
+        return added;
+    }
+
+    public long getDuplicates() {
+        return duplicates;
+    }
+
+    public long getInvalid() {
+        return invalid;
+    }
+
+    public void close() throws SQLException {
+        connection.close();
+    }
+}
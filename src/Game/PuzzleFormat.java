@@ -0,0 +1,67 @@
+package Game;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class PuzzleFormat {
+    public static boolean parse(CharSequence line, byte[] board) {
+        if (line.length() != 81) {
+            return false;
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            char c = line.charAt(cell);
+            if (c >= '1' && c <= '9') {
+                board[cell] = (byte) (c - '0');
+            } else if (c == '.' || c == '0') {
+                board[cell] = 0;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static boolean parse(ByteBuffer buffer, int from, int to, byte[] board) {
+        if (to - from != 81) {
+            return false;
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            int c = buffer.get(from + cell);
+            if (c >= '1' && c <= '9') {
+                board[cell] = (byte) (c - '0');
+            } else if (c == '.' || c == '0') {
+                board[cell] = 0;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public static void format(byte[] board, byte[] out, int offset) {
+        for (int cell = 0; cell < 81; cell++) {
+            out[offset + cell] = (byte) (board[cell] == 0 ? '.' : '0' + board[cell]);
+        }
+    }
+
+    // Two cells per byte, 41 bytes per board
+    public static byte[] pack(byte[] board) {
+        byte[] packed = new byte[41];
+        for (int cell = 0; cell < 81; cell++) {
+            packed[cell >> 1] |= (byte) (board[cell] << ((cell & 1) << 2));
+        }
+        return packed;
+    }
+
+    public static void unpack(byte[] packed, byte[] board) {
+        for (int cell = 0; cell < 81; cell++) {
+            board[cell] = (byte) (packed[cell >> 1] >> ((cell & 1) << 2) & 0xF);
+        }
+    }
+
+    public static String toString(byte[] board) {
+        byte[] out = new byte[81];
+        format(board, out, 0);
+        return new String(out, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,136 @@
+package Game;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+// A puzzle is fully determined by its difficulty level, generator seed and generator version,
+// written as "<level letter>[version]-<seed in hex>", for example "M-97c372be01959835". The
+// version is left out when it is 1, so IDs handed out before versioning still parse. A level
+// whose generator settings never changed always uses version 1, so each puzzle has one ID.
+public class PuzzleId {
+    public static final String[] LEVELS = { "Easy", "Medium", "Hard", "Nightmare" };
+    public static final int VERSION = 3;
+
+    // Generator difficulty per level for each version. Version 1 targeted 20 clues for Hard
+    // and Nightmare, version 2 made Nightmare minimal, and version 3 holds Hard to 26 clues and
+    // both Hard and Nightmare to a rating band.
+    private static final int[][] VERSIONS = {
+            {},
+            { SudokuGenerator.EASY, SudokuGenerator.MEDIUM, 20, 20 },
+            { SudokuGenerator.EASY, SudokuGenerator.MEDIUM, 20, SudokuGenerator.MINIMAL },
+            { SudokuGenerator.EASY, SudokuGenerator.MEDIUM, SudokuGenerator.HARD, SudokuGenerator.NIGHTMARE } };
+    static final int[] DIFFICULTIES = VERSIONS[VERSION];
+
+    private final int level;
+    private final long seed;
+    private final int version;
+
+    public PuzzleId(int level, long seed) {
+        this(level, seed, VERSION);
+    }
+
+    public PuzzleId(int level, long seed, int version) {
+        if (level < 0 || level >= LEVELS.length) {
+            throw new IllegalArgumentException("Unknown level: " + level);
+        }
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported puzzle version: " + version);
+        }
+        while (version > 1 && VERSIONS[version - 1][level] == VERSIONS[version][level]) {
+            version--;
+        }
+        this.level = level;
+        this.seed = seed;
+        this.version = version;
+    }
+
+    public PuzzleId(String levelName, long seed) {
+        this(level(levelName), seed);
+    }
+
+    public static int level(String name) {
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (LEVELS[i].equalsIgnoreCase(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown difficulty: " + name);
+    }
+
+    public static PuzzleId parse(String id) {
+        String text = id.trim();
+        int dash = text.indexOf('-');
+        if (dash < 1 || dash > 2 || dash == text.length() - 1) {
+            throw new IllegalArgumentException("Bad puzzle ID: " + id);
+        }
+        int level = -1;
+        for (int i = 0; i < LEVELS.length; i++) {
+            if (Character.toUpperCase(text.charAt(0)) == LEVELS[i].charAt(0)) {
+                level = i;
+            }
+        }
+        if (level < 0) {
+            throw new IllegalArgumentException("Bad puzzle ID: " + id);
+        }
+        int version = 1;
+        if (dash == 2) {
+            version = Character.digit(text.charAt(1), 10);
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Puzzle ID needs a newer version of the game: " + id);
+            }
+        }
+        try {
+            return new PuzzleId(level, Long.parseUnsignedLong(text.substring(dash + 1), 16), version);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad puzzle ID: " + id);
+        }
+    }
+
+    // Everyone gets the same puzzle for a given date and level, with nothing stored
+    public static PuzzleId daily(LocalDate date, int level) {
+        return new PuzzleId(level, new SplittableRandom(date.toEpochDay() * LEVELS.length + level).nextLong());
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public String getLevelName() {
+        return LEVELS[level];
+    }
+
+    public int getDifficulty() {
+        return VERSIONS[version][level];
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public Puzzle generate() {
+        SudokuGenerator generator = new SudokuGenerator();
+        generator.generate(getDifficulty(), seed);
+        return Puzzle.from(generator, getDifficulty());
+    }
+
+    @Override
+    public String toString() {
+        return LEVELS[level].charAt(0) + (version > 1 ? String.valueOf(version) : "") + "-"
+                + String.format("%016x", seed);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof PuzzleId && ((PuzzleId) o).level == level && ((PuzzleId) o).seed == seed
+                && ((PuzzleId) o).version == version;
+    }
+
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(seed) * 31 + level) * 31 + version;
+    }
+}
@@ -0,0 +1,271 @@
+package Game;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Keeps a few graded puzzles ready for each difficulty. A low-priority daemon thread tops a
+// queue back up to the high watermark whenever it drops below the low watermark, one puzzle
+// per level in turn so a slow level cannot starve the others. A take that finds its queue
+// empty is queued for the producer, which serves waiting callers before any refill.
+public class PuzzlePool implements PuzzlePoolMBean {
+    public static final int DEFAULT_LOW_WATERMARK = Integer.getInteger("sudoku.pool.low", 2);
+    public static final int DEFAULT_HIGH_WATERMARK = Integer.getInteger("sudoku.pool.high", 5);
+    // Pause after a failed generation so a generator that keeps failing cannot spin the producer
+    public static final long FAILURE_BACKOFF_MILLIS = 1000;
+
+    private static PuzzlePool shared;
+
+    private final List<Level> levels = new ArrayList<>();
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final SudokuGenerator generator = new SudokuGenerator();
+    private final ThreadLocal<SudokuGenerator> fallback = ThreadLocal.withInitial(SudokuGenerator::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder generateNanos = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final AtomicLong lastRefillNanos = new AtomicLong();
+    private final AtomicLong maxRefillNanos = new AtomicLong();
+    private int nextLevel;
+
+    public PuzzlePool(int[] difficulties, int lowWatermark, int highWatermark) {
+        if (lowWatermark < 0 || highWatermark < 1 || lowWatermark > highWatermark) {
+            throw new IllegalArgumentException("Bad watermarks: " + lowWatermark + "/" + highWatermark);
+        }
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        for (int difficulty : difficulties) {
+            if (level(difficulty) == null) {
+                levels.add(new Level(difficulty, highWatermark));
+            }
+        }
+
+        Thread producer = new Thread(this::produce, "puzzle-pool");
+        producer.setDaemon(true);
+        producer.setPriority(Thread.MIN_PRIORITY);
+        producer.start();
+    }
+
+    public static synchronized PuzzlePool shared() {
+        if (shared == null) {
+            shared = new PuzzlePool(new int[] { SudokuGenerator.EASY, SudokuGenerator.MEDIUM,
+                    SudokuGenerator.HARD, SudokuGenerator.NIGHTMARE }, DEFAULT_LOW_WATERMARK, DEFAULT_HIGH_WATERMARK);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(shared,
+                        new ObjectName("Game:type=PuzzlePool"));
+            } catch (JMException e) {
+                System.out.println("Error registering puzzle pool metrics: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+        return shared;
+    }
+
+    // Blocks until a puzzle is ready; never call this on the event thread
+    public Puzzle take(int difficulty) {
+        return takeAsync(difficulty).join();
+    }
+
+    // Completes at once from the pool, or when the producer has generated a puzzle for this caller
+    public CompletableFuture<Puzzle> takeAsync(int difficulty) {
+        Level level = level(difficulty);
+        if (level == null) {
+            misses.increment();
+            return CompletableFuture.supplyAsync(() -> {
+                SudokuGenerator generator = fallback.get();
+                generator.generate(difficulty);
+                return Puzzle.from(generator, difficulty);
+            });
+        }
+
+        synchronized (this) {
+            Puzzle puzzle = level.queue.poll();
+            CompletableFuture<Puzzle> result;
+            if (puzzle != null) {
+                hits.increment();
+                result = CompletableFuture.completedFuture(puzzle);
+            } else {
+                misses.increment();
+                result = new CompletableFuture<>();
+                level.waiting.add(result);
+            }
+            if (level.queue.size() < lowWatermark && level.belowSince == 0) {
+                level.belowSince = System.nanoTime();
+            }
+            notifyAll();
+            return result;
+        }
+    }
+
+    private Level level(int difficulty) {
+        for (Level level : levels) {
+            if (level.difficulty == difficulty) {
+                return level;
+            }
+        }
+        return null;
+    }
+
+    private void produce() {
+        while (true) {
+            Level level;
+            try {
+                level = awaitWork();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            long start = System.nanoTime();
+            Puzzle puzzle;
+            try {
+                generator.generate(level.difficulty);
+                puzzle = Puzzle.from(generator, level.difficulty);
+            } catch (RuntimeException e) {
+                failures.increment();
+                System.out.println("Error generating pooled puzzle: " + e.getMessage());
+                e.printStackTrace();
+                fail(level, e);
+                try {
+                    Thread.sleep(FAILURE_BACKOFF_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+                continue;
+            }
+            generated.increment();
+            generateNanos.add(System.nanoTime() - start);
+
+            CompletableFuture<Puzzle> waiter;
+            synchronized (this) {
+                waiter = level.waiting.poll();
+                if (waiter == null && (!level.queue.offer(puzzle) || level.queue.size() >= highWatermark)
+                        && level.belowSince != 0) {
+                    long refill = System.nanoTime() - level.belowSince;
+                    level.belowSince = 0;
+                    lastRefillNanos.set(refill);
+                    maxRefillNanos.accumulateAndGet(refill, Math::max);
+                }
+            }
+            if (waiter != null) {
+                waiter.complete(puzzle);
+            }
+        }
+    }
+
+    // Callers already waiting on the level get the failure rather than waiting on a retry
+    private void fail(Level level, RuntimeException e) {
+        List<CompletableFuture<Puzzle>> waiters;
+        synchronized (this) {
+            waiters = new ArrayList<>(level.waiting);
+            level.waiting.clear();
+        }
+        for (CompletableFuture<Puzzle> waiter : waiters) {
+            waiter.completeExceptionally(e);
+        }
+    }
+
+    // A level with a caller waiting on it, else the next level due a refill after the last one served
+    private synchronized Level awaitWork() throws InterruptedException {
+        while (true) {
+            for (Level level : levels) {
+                if (!level.waiting.isEmpty()) {
+                    return level;
+                }
+            }
+            for (int i = 0; i < levels.size(); i++) {
+                int index = (nextLevel + i) % levels.size();
+                Level level = levels.get(index);
+                if (level.queue.size() < lowWatermark || level.belowSince != 0) {
+                    nextLevel = index + 1;
+                    return level;
+                }
+            }
+            wait();
+        }
+    }
+
+    public int size(int difficulty) {
+        Level level = level(difficulty);
+        return level == null ? 0 : level.queue.size();
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public double getHitRate() {
+        long total = hits.sum() + misses.sum();
+        return total == 0 ? 0 : (double) hits.sum() / total;
+    }
+
+    @Override
+    public int[] getSizes() {
+        int[] sizes = new int[levels.size()];
+        for (int i = 0; i < sizes.length; i++) {
+            sizes[i] = levels.get(i).queue.size();
+        }
+        return sizes;
+    }
+
+    @Override
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    @Override
+    public long getFailures() {
+        return failures.sum();
+    }
+
+    @Override
+    public double getMeanGenerateMillis() {
+        long count = generated.sum();
+        return count == 0 ? 0 : generateNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public double getLastRefillMillis() {
+        return lastRefillNanos.get() / 1e6;
+    }
+
+    @Override
+    public double getMaxRefillMillis() {
+        return maxRefillNanos.get() / 1e6;
+    }
+
+    private static class Level {
+        final int difficulty;
+        final ArrayBlockingQueue<Puzzle> queue;
+        final ArrayDeque<CompletableFuture<Puzzle>> waiting = new ArrayDeque<>();
+        long belowSince = System.nanoTime();
+
+        Level(int difficulty, int capacity) {
+            this.difficulty = difficulty;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package Game;
+
+public interface PuzzlePoolMBean {
+    long getHits();
+
+    long getMisses();
+
+    double getHitRate();
+
+    int[] getSizes();
+
+    long getGenerated();
+
+    long getFailures();
+
+    double getMeanGenerateMillis();
+
+    double getLastRefillMillis();
+
+    double getMaxRefillMillis();
+}
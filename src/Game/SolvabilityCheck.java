@@ -0,0 +1,71 @@
+package Game;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+// Answers "can this board still be completed?" off the event thread. Requests are debounced,
+// so only the board as it stands after a pause in typing is checked. A newer request cancels
+// the check in flight, and answers for boards that have since changed are dropped. Every
+// method must be called on the event thread; the listener is called there too.
+public class SolvabilityCheck {
+    public static final int DEBOUNCE_MILLIS = 250;
+    public static final long TIMEOUT_MILLIS = 500;
+
+    private final Consumer<SudokuSolver.Result> listener;
+    private final Timer debounce;
+    private final byte[] pending = new byte[81];
+    private SolveBudget running;
+    private int generation;
+
+    public SolvabilityCheck(Consumer<SudokuSolver.Result> listener) {
+        this.listener = listener;
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> start());
+        debounce.setRepeats(false);
+    }
+
+    public void request(byte[] board) {
+        System.arraycopy(board, 0, pending, 0, 81);
+        cancel();
+        debounce.start();
+    }
+
+    public void cancel() {
+        generation++;
+        debounce.stop();
+        if (running != null) {
+            running.cancel();
+            running = null;
+        }
+    }
+
+    private void start() {
+        byte[] board = pending.clone();
+        int ticket = generation;
+        SolveBudget budget = SolveBudget.ofMillis(TIMEOUT_MILLIS);
+        running = budget;
+
+        new SwingWorker<SudokuSolver.Result, Void>() {
+            @Override
+            protected SudokuSolver.Result doInBackground() {
+                return SudokuSolver.solve(board, SudokuSolver.Strategy.MRV, budget);
+            }
+
+            @Override
+            protected void done() {
+                if (running == budget) {
+                    running = null;
+                }
+                if (ticket != generation) {
+                    return;
+                }
+                try {
+                    listener.accept(get());
+                } catch (InterruptedException | ExecutionException ex) {
+                    listener.accept(SudokuSolver.Result.ABORTED);
+                }
+            }
+        }.execute();
+    }
+}
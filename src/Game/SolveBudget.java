@@ -0,0 +1,61 @@
+package Game;
+
+// Limits a single solve by wall time and search nodes, and lets another thread cancel it.
+// The solving thread ticks it once per node; the clock is only read every 64 nodes. Once it
+// has fired every later tick fails too, so a search unwinds instead of trying more candidates.
+public class SolveBudget {
+    private static final long CLOCK_MASK = 63;
+
+    private final long deadline;
+    private final boolean hasDeadline;
+    private final long maxNodes;
+    private long nodes;
+    private volatile boolean cancelled;
+    private volatile boolean aborted;
+
+    public SolveBudget() {
+        this(0, Long.MAX_VALUE);
+    }
+
+    public SolveBudget(long timeoutMillis, long maxNodes) {
+        this.hasDeadline = timeoutMillis > 0;
+        this.deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        this.maxNodes = maxNodes;
+    }
+
+    public static SolveBudget ofMillis(long timeoutMillis) {
+        return new SolveBudget(timeoutMillis, Long.MAX_VALUE);
+    }
+
+    public static SolveBudget ofNodes(long maxNodes) {
+        return new SolveBudget(0, maxNodes);
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isAborted() {
+        return aborted;
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    boolean tick() {
+        if (aborted) {
+            return false;
+        }
+        if (cancelled || ++nodes > maxNodes
+                || hasDeadline && (nodes & CLOCK_MASK) == 0 && System.nanoTime() - deadline >= 0) {
+            aborted = true;
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,190 @@
+package Game;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// An LRU cache of solutions. Every board is first looked up by its raw contents, which costs
+// one string copy. Canonical caches then fall back to the board's canonical form, so relabelled,
+// transposed or shuffled copies share an entry; that search is far dearer than a solve, so it is
+// only done when asked for and skipped for grids too sparse to have a unique solution. Entries
+// are spread over independently locked stripes, so LRU order is kept per stripe.
+public class SolveCache {
+    public static final int STRIPES = 16;
+    public static final int MIN_CANONICAL_CLUES = 17;
+
+    private static final byte[] UNSOLVABLE = new byte[0];
+
+    private final int maxEntries;
+    private final boolean canonical;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SolveCache(int maxEntries) {
+        this(maxEntries, false);
+    }
+
+    public SolveCache(int maxEntries, boolean canonical) {
+        this.maxEntries = maxEntries;
+        this.canonical = canonical;
+        int perStripe = Math.max(1, (maxEntries + STRIPES - 1) / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(perStripe);
+        }
+    }
+
+    public boolean solve(int[][] puzzle, SudokuSolver.Strategy strategy) {
+        byte[] board = SudokuEngine.toBoard(puzzle);
+        if (solve(board, strategy)) {
+            for (int cell = 0; cell < 81; cell++) {
+                puzzle[SudokuEngine.ROW[cell]][SudokuEngine.COL[cell]] = board[cell];
+            }
+            return true;
+        }
+        return false;
+    }
+
+    public boolean solve(byte[] board, SudokuSolver.Strategy strategy) {
+        String rawKey = new String(board, StandardCharsets.ISO_8859_1);
+        byte[] solution = get(rawKey);
+        if (solution != null) {
+            hits.incrementAndGet();
+            return copy(solution, board);
+        }
+
+        if (!canonical || clues(board) < MIN_CANONICAL_CLUES) {
+            misses.incrementAndGet();
+            solution = board.clone();
+            if (!SudokuSolver.solve(solution, strategy)) {
+                solution = UNSOLVABLE;
+            }
+            put(rawKey, solution);
+            return copy(solution, board);
+        }
+
+        CanonicalForm form = CanonicalForm.of(board);
+        String key = form.getKey();
+        solution = get(key);
+        if (solution != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            solution = form.getBoard().clone();
+            if (!SudokuSolver.solve(solution, strategy)) {
+                solution = UNSOLVABLE;
+            }
+            put(key, solution);
+        }
+
+        if (solution == UNSOLVABLE) {
+            put(rawKey, UNSOLVABLE);
+            return false;
+        }
+        form.fromCanonical(solution, board);
+        put(rawKey, board.clone());
+        return true;
+    }
+
+    private static boolean copy(byte[] solution, byte[] board) {
+        if (solution == UNSOLVABLE) {
+            return false;
+        }
+        System.arraycopy(solution, 0, board, 0, 81);
+        return true;
+    }
+
+    private static int clues(byte[] board) {
+        int count = 0;
+        for (byte value : board) {
+            if (value != 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private Stripe stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+
+    private byte[] get(String key) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    private void put(String key, byte[] solution) {
+        Stripe stripe = stripe(key);
+        synchronized (stripe) {
+            stripe.put(key, solution);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+    }
+
+    public boolean isCanonical() {
+        return canonical;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public double getHitRate() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0 : (double) hits.get() / total;
+    }
+
+    private class Stripe extends LinkedHashMap<String, byte[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Stripe(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, byte[]> eldest) {
+            if (size() > capacity) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
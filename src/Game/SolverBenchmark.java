@@ -0,0 +1,124 @@
+package Game;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SolverBenchmark {
+    // Takes over a second to solve by plain backtracking, so a short budget must cut it off
+    public static final String SLOW_PUZZLE =
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9";
+    public static final long BUDGET_MILLIS = 50;
+    // SLOW_PUZZLE without its last clue, which leaves 7265 solutions to count
+    public static final String COUNT_PUZZLE =
+            "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4....";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: SolverBenchmark <puzzle file> [rounds]");
+            System.exit(1);
+        }
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<byte[]> corpus = new ArrayList<>();
+        for (String line : Files.readAllLines(Paths.get(args[0]))) {
+            byte[] board = new byte[81];
+            if (PuzzleFormat.parse(line.trim(), board)) {
+                corpus.add(board);
+            }
+        }
+
+        for (SudokuSolver.Strategy strategy : SudokuSolver.Strategy.values()) {
+            run(corpus, strategy);
+            long start = System.nanoTime();
+            int solved = 0;
+            for (int round = 0; round < rounds; round++) {
+                solved = run(corpus, strategy);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-12s solved %d/%d  %.0f puzzles/sec%n", strategy, solved, corpus.size(),
+                    corpus.size() * rounds / seconds);
+        }
+
+        // Load plus one round of singles, the part of every MRV node that the candidate map speeds up
+        SudokuEngine engine = SudokuEngine.local();
+        propagate(corpus, engine);
+        long start = System.nanoTime();
+        int consistent = 0;
+        for (int round = 0; round < rounds; round++) {
+            consistent = propagate(corpus, engine);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s consistent %d/%d  %.0f puzzles/sec%n", "PROPAGATE", consistent, corpus.size(),
+                corpus.size() * rounds / seconds);
+
+        LogicalSolver grader = new LogicalSolver();
+        start = System.nanoTime();
+        int solved = 0;
+        for (int round = 0; round < rounds; round++) {
+            solved = 0;
+            for (byte[] board : corpus) {
+                if (grader.solve(board)) {
+                    solved++;
+                }
+            }
+        }
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%-12s solved %d/%d  %.0f puzzles/sec%n", "LOGICAL", solved, corpus.size(),
+                corpus.size() * rounds / seconds);
+
+        // Counting a grid with thousands of solutions is the one search PARALLEL can split widely
+        byte[] open = new byte[81];
+        PuzzleFormat.parse(COUNT_PUZZLE, open);
+        for (SudokuSolver.Strategy strategy : SudokuSolver.Strategy.values()) {
+            SudokuSolver.countSolutions(open, Long.MAX_VALUE, strategy);
+            start = System.nanoTime();
+            long count = 0;
+            for (int round = 0; round < rounds; round++) {
+                count = SudokuSolver.countSolutions(open, Long.MAX_VALUE, strategy);
+            }
+            seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%-12s counted %d solutions  %.1f ms/count%n", "COUNT " + strategy, count,
+                    seconds * 1000 / rounds);
+        }
+
+        // A budgeted solve must give up close to its deadline, not after finishing the search
+        byte[] slow = new byte[81];
+        PuzzleFormat.parse(SLOW_PUZZLE, slow);
+        for (SudokuSolver.Strategy strategy : SudokuSolver.Strategy.values()) {
+            if (strategy == SudokuSolver.Strategy.PARALLEL) {
+                continue;
+            }
+            byte[] board = slow.clone();
+            long begin = System.nanoTime();
+            SudokuSolver.Result result = SudokuSolver.solve(board, strategy, SolveBudget.ofMillis(BUDGET_MILLIS));
+            double millis = (System.nanoTime() - begin) / 1e6;
+            System.out.printf("%-12s %s after %.1f ms with a %d ms budget%s%n", "BUDGET " + strategy, result, millis,
+                    BUDGET_MILLIS, result == SudokuSolver.Result.ABORTED && millis > 2 * BUDGET_MILLIS ? "  OVERRAN" : "");
+        }
+    }
+
+    private static int run(List<byte[]> corpus, SudokuSolver.Strategy strategy) {
+        int solved = 0;
+        byte[] copy = new byte[81];
+        for (byte[] board : corpus) {
+            System.arraycopy(board, 0, copy, 0, 81);
+            if (SudokuSolver.solve(copy, strategy)) {
+                solved++;
+            }
+        }
+        return solved;
+    }
+
+    private static int propagate(List<byte[]> corpus, SudokuEngine engine) {
+        int consistent = 0;
+        for (byte[] board : corpus) {
+            if (engine.load(board) && engine.propagate()) {
+                consistent++;
+            }
+        }
+        return consistent;
+    }
+}
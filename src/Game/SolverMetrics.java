@@ -0,0 +1,201 @@
+package Game;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+public class SolverMetrics implements SolverMetricsMBean {
+    private static final boolean ENABLED = Boolean.getBoolean("sudoku.stats");
+
+    public static final SolverMetrics SOLVER = new SolverMetrics("solver");
+    public static final SolverMetrics GENERATOR = new SolverMetrics("generator");
+
+    // Four buckets per power of two, so percentiles are within 25% of the true latency
+    private static final int BUCKETS = 64 * 4;
+
+    private final ThreadLocal<SolverStats> local = ThreadLocal.withInitial(SolverStats::new);
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder backtracks = new LongAdder();
+    private final LongAdder propagationRounds = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicInteger maxDepth = new AtomicInteger();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final AtomicLongArray histogram = new AtomicLongArray(BUCKETS);
+    private volatile String slowestPuzzle = "";
+
+    private SolverMetrics(String name) {
+        if (ENABLED) {
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .registerMBean(this, new ObjectName("Game:type=SolverMetrics,name=" + name));
+            } catch (JMException e) {
+                System.out.println("Error registering solver metrics: " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    // Returns this thread's stats, reset and timed, or null when collection is off
+    public SolverStats begin() {
+        if (!ENABLED) {
+            return null;
+        }
+        SolverStats stats = local.get();
+        stats.reset();
+        stats.startNanos = System.nanoTime();
+        return stats;
+    }
+
+    public SolverStats begin(byte[] board) {
+        SolverStats stats = begin();
+        if (stats != null) {
+            stats.capture(board);
+        }
+        return stats;
+    }
+
+    public SolverStats begin(int[][] grid) {
+        SolverStats stats = begin();
+        if (stats != null) {
+            stats.capture(grid);
+        }
+        return stats;
+    }
+
+    public void end(SolverStats stats) {
+        if (stats == null) {
+            return;
+        }
+        stats.nanos = System.nanoTime() - stats.startNanos;
+        record(stats);
+    }
+
+    public void record(SolverStats stats) {
+        calls.increment();
+        nodes.add(stats.nodes);
+        backtracks.add(stats.backtracks);
+        propagationRounds.add(stats.propagationRounds);
+        totalNanos.add(stats.nanos);
+        histogram.incrementAndGet(bucket(stats.nanos));
+
+        if (stats.maxDepth > maxDepth.get()) {
+            maxDepth.accumulateAndGet(stats.maxDepth, Math::max);
+        }
+        for (long max = maxNanos.get(); stats.nanos > max; max = maxNanos.get()) {
+            if (maxNanos.compareAndSet(max, stats.nanos)) {
+                slowestPuzzle = stats.hasPuzzle ? PuzzleFormat.toString(stats.puzzle) : "";
+                break;
+            }
+        }
+    }
+
+    private static int bucket(long nanos) {
+        if (nanos < 8) {
+            return (int) Math.max(nanos, 0);
+        }
+        int octave = 63 - Long.numberOfLeadingZeros(nanos);
+        return octave * 4 + (int) (nanos >>> (octave - 2) & 3);
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < 8) {
+            return bucket;
+        }
+        int octave = bucket / 4;
+        return ((4L + bucket % 4 + 1) << (octave - 2)) - 1;
+    }
+
+    public double getPercentileMillis(double percentile) {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            total += histogram.get(i);
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(total * percentile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += histogram.get(i);
+            if (seen >= target) {
+                return Math.min(upperBound(i), maxNanos.get()) / 1e6;
+            }
+        }
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getBacktracks() {
+        return backtracks.sum();
+    }
+
+    @Override
+    public long getPropagationRounds() {
+        return propagationRounds.sum();
+    }
+
+    @Override
+    public int getMaxDepth() {
+        return maxDepth.get();
+    }
+
+    @Override
+    public double getMeanMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0 : totalNanos.sum() / 1e6 / count;
+    }
+
+    @Override
+    public double getP50Millis() {
+        return getPercentileMillis(0.50);
+    }
+
+    @Override
+    public double getP99Millis() {
+        return getPercentileMillis(0.99);
+    }
+
+    @Override
+    public double getMaxMillis() {
+        return maxNanos.get() / 1e6;
+    }
+
+    @Override
+    public String getSlowestPuzzle() {
+        return slowestPuzzle;
+    }
+
+    @Override
+    public void reset() {
+        calls.reset();
+        nodes.reset();
+        backtracks.reset();
+        propagationRounds.reset();
+        totalNanos.reset();
+        maxDepth.set(0);
+        maxNanos.set(0);
+        for (int i = 0; i < BUCKETS; i++) {
+            histogram.set(i, 0);
+        }
+        slowestPuzzle = "";
+    }
+}
@@ -0,0 +1,25 @@
+package Game;
+
+public interface SolverMetricsMBean {
+    long getCalls();
+
+    long getNodes();
+
+    long getBacktracks();
+
+    long getPropagationRounds();
+
+    int getMaxDepth();
+
+    double getMeanMillis();
+
+    double getP50Millis();
+
+    double getP99Millis();
+
+    double getMaxMillis();
+
+    String getSlowestPuzzle();
+
+    void reset();
+}
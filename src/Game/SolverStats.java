@@ -0,0 +1,69 @@
+package Game;
+
+public class SolverStats {
+    long nodes;
+    long backtracks;
+    int maxDepth;
+    long propagationRounds;
+    long startNanos;
+    long nanos;
+    final byte[] puzzle = new byte[81];
+    boolean hasPuzzle;
+
+    public void reset() {
+        nodes = 0;
+        backtracks = 0;
+        maxDepth = 0;
+        propagationRounds = 0;
+        startNanos = 0;
+        nanos = 0;
+        hasPuzzle = false;
+    }
+
+    void enter(int depth) {
+        nodes++;
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    void capture(byte[] board) {
+        System.arraycopy(board, 0, puzzle, 0, 81);
+        hasPuzzle = true;
+    }
+
+    void capture(int[][] grid) {
+        if (grid.length == 9) {
+            for (int cell = 0; cell < 81; cell++) {
+                puzzle[cell] = (byte) grid[SudokuEngine.ROW[cell]][SudokuEngine.COL[cell]];
+            }
+            hasPuzzle = true;
+        }
+    }
+
+    public long getNodes() {
+        return nodes;
+    }
+
+    public long getBacktracks() {
+        return backtracks;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getPropagationRounds() {
+        return propagationRounds;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("nodes=%d backtracks=%d maxDepth=%d rounds=%d time=%.3f ms",
+                nodes, backtracks, maxDepth, propagationRounds, nanos / 1e6);
+    }
+}
@@ -0,0 +1,384 @@
+package Game;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class SudokuEngine {
+    public static final int ALL = 0x1FF;
+
+    static final int[] ROW = new int[81];
+    static final int[] COL = new int[81];
+    static final int[] BOX = new int[81];
+    static final int[][] UNITS = new int[27][9];
+    static final int[][] PEERS = new int[81][20];
+
+    static {
+        for (int cell = 0; cell < 81; cell++) {
+            ROW[cell] = cell / 9;
+            COL[cell] = cell % 9;
+            BOX[cell] = box(cell / 9, cell % 9);
+        }
+        for (int i = 0; i < 9; i++) {
+            for (int j = 0; j < 9; j++) {
+                UNITS[i][j] = i * 9 + j;
+                UNITS[9 + i][j] = j * 9 + i;
+                UNITS[18 + i][j] = (i / 3 * 3 + j / 3) * 9 + i % 3 * 3 + j % 3;
+            }
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            int k = 0;
+            for (int other = 0; other < 81; other++) {
+                if (other != cell && (ROW[other] == ROW[cell] || COL[other] == COL[cell] || BOX[other] == BOX[cell])) {
+                    PEERS[cell][k++] = other;
+                }
+            }
+        }
+    }
+
+    private static final ThreadLocal<SudokuEngine> LOCAL = ThreadLocal.withInitial(SudokuEngine::new);
+
+    private final byte[] cells = new byte[81];
+    private final int[] rowMask = new int[9];
+    private final int[] colMask = new int[9];
+    private final int[] boxMask = new int[9];
+    private final int[] trail = new int[81];
+    private final int[] candidateMap = new int[81];
+    private int trailSize;
+    private boolean consistent = true;
+    private AtomicBoolean cancelled;
+    private SolverStats stats;
+    private SolveBudget budget;
+
+    public SudokuEngine() {
+    }
+
+    public SudokuEngine(int[][] grid) {
+        load(grid);
+    }
+
+    public static SudokuEngine local() {
+        return LOCAL.get();
+    }
+
+    public boolean load(int[][] grid) {
+        clear();
+        for (int cell = 0; cell < 81; cell++) {
+            load(cell, grid[ROW[cell]][COL[cell]]);
+        }
+        return consistent;
+    }
+
+    public boolean load(byte[] board) {
+        clear();
+        for (int cell = 0; cell < 81; cell++) {
+            load(cell, board[cell]);
+        }
+        return consistent;
+    }
+
+    private void load(int cell, int value) {
+        if (value != 0) {
+            int bit = 1 << (value - 1);
+            if ((candidates(cell) & bit) == 0) {
+                consistent = false;
+            }
+            cells[cell] = (byte) value;
+            mark(cell, bit);
+        }
+    }
+
+    public void clear() {
+        for (int i = 0; i < 9; i++) {
+            rowMask[i] = 0;
+            colMask[i] = 0;
+            boxMask[i] = 0;
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            cells[cell] = 0;
+        }
+        trailSize = 0;
+        consistent = true;
+    }
+
+    public void store(int[][] grid) {
+        for (int cell = 0; cell < 81; cell++) {
+            grid[ROW[cell]][COL[cell]] = cells[cell];
+        }
+    }
+
+    public void store(byte[] board) {
+        System.arraycopy(cells, 0, board, 0, 81);
+    }
+
+    public static int[][] toGrid(byte[] board) {
+        int[][] grid = new int[9][9];
+        for (int cell = 0; cell < 81; cell++) {
+            grid[ROW[cell]][COL[cell]] = board[cell];
+        }
+        return grid;
+    }
+
+    public static byte[] toBoard(int[][] grid) {
+        byte[] board = new byte[81];
+        for (int cell = 0; cell < 81; cell++) {
+            board[cell] = (byte) grid[ROW[cell]][COL[cell]];
+        }
+        return board;
+    }
+
+    public void setCancelFlag(AtomicBoolean cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public void setBudget(SolveBudget budget) {
+        this.budget = budget;
+    }
+
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    public static int box(int row, int col) {
+        return row / 3 * 3 + col / 3;
+    }
+
+    public int get(int cell) {
+        return cells[cell];
+    }
+
+    public int candidates(int cell) {
+        return ~(rowMask[ROW[cell]] | colMask[COL[cell]] | boxMask[BOX[cell]]) & ALL;
+    }
+
+    public int candidates(int row, int col) {
+        return candidates(row * 9 + col);
+    }
+
+    public void place(int cell, int value) {
+        cells[cell] = (byte) value;
+        mark(cell, 1 << (value - 1));
+    }
+
+    public void unplace(int cell) {
+        int bit = ~(1 << (cells[cell] - 1));
+        cells[cell] = 0;
+        rowMask[ROW[cell]] &= bit;
+        colMask[COL[cell]] &= bit;
+        boxMask[BOX[cell]] &= bit;
+    }
+
+    private void mark(int cell, int bit) {
+        rowMask[ROW[cell]] |= bit;
+        colMask[COL[cell]] |= bit;
+        boxMask[BOX[cell]] |= bit;
+    }
+
+    public boolean solve() {
+        return consistent && solve(0, 0);
+    }
+
+    private boolean solve(int cell, int depth) {
+        if (stats != null) {
+            stats.enter(depth);
+        }
+        if (stopped()) {
+            return false;
+        }
+        while (cell < 81 && cells[cell] != 0) {
+            cell++;
+        }
+        if (cell == 81) {
+            return true;
+        }
+
+        for (int candidates = candidates(cell); candidates != 0; candidates &= candidates - 1) {
+            place(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+            if (solve(cell + 1, depth + 1)) {
+                return true;
+            }
+            unplace(cell);
+            if (stats != null) {
+                stats.backtracks++;
+            }
+        }
+        return false;
+    }
+
+    public boolean solveMrv() {
+        if (consistent && searchMrv(0)) {
+            return true;
+        }
+        undo(0);
+        return false;
+    }
+
+    public int countSolutions(int limit) {
+        if (!consistent || limit <= 0) {
+            return 0;
+        }
+        int count = searchCount(limit, 0);
+        undo(0);
+        return count;
+    }
+
+    // True if the grid can be completed with something other than value in cell
+    public boolean hasSolutionWithout(int cell, int value) {
+        if (!consistent) {
+            return false;
+        }
+        int mark = trailSize;
+        for (int others = candidates(cell) & ~(1 << (value - 1)); others != 0; others &= others - 1) {
+            assign(cell, Integer.numberOfTrailingZeros(others) + 1);
+            boolean found = searchMrv(0);
+            undo(mark);
+            if (found) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int searchCount(int limit, int depth) {
+        if (stats != null) {
+            stats.enter(depth);
+        }
+        if (stopped() || !propagate()) {
+            return 0;
+        }
+
+        int best = mostConstrainedCell();
+        if (best < 0) {
+            return 1;
+        }
+
+        int count = 0;
+        int mark = trailSize;
+        for (int candidates = candidates(best); candidates != 0 && count < limit; candidates &= candidates - 1) {
+            assign(best, Integer.numberOfTrailingZeros(candidates) + 1);
+            count += searchCount(limit - count, depth + 1);
+            undo(mark);
+            if (stats != null) {
+                stats.backtracks++;
+            }
+        }
+        return count;
+    }
+
+    private boolean searchMrv(int depth) {
+        if (stats != null) {
+            stats.enter(depth);
+        }
+        if (stopped() || !propagate()) {
+            return false;
+        }
+
+        int best = mostConstrainedCell();
+        if (best < 0) {
+            return true;
+        }
+
+        int mark = trailSize;
+        for (int candidates = candidates(best); candidates != 0; candidates &= candidates - 1) {
+            assign(best, Integer.numberOfTrailingZeros(candidates) + 1);
+            if (searchMrv(depth + 1)) {
+                return true;
+            }
+            undo(mark);
+            if (stats != null) {
+                stats.backtracks++;
+            }
+        }
+        return false;
+    }
+
+    private boolean stopped() {
+        return cancelled != null && cancelled.get() || budget != null && !budget.tick();
+    }
+
+    public int mostConstrainedCell() {
+        int best = -1;
+        int bestCount = 10;
+        for (int cell = 0; cell < 81 && bestCount > 2; cell++) {
+            if (cells[cell] == 0) {
+                int count = Integer.bitCount(candidates(cell));
+                if (count < bestCount) {
+                    best = cell;
+                    bestCount = count;
+                }
+            }
+        }
+        return best;
+    }
+
+    public boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            if (stats != null) {
+                stats.propagationRounds++;
+            }
+
+            // candidateMap may go stale as singles are assigned; stale entries are supersets,
+            // so hidden singles found from it are re-checked against the live masks
+            // Filling candidateMap with a jdk.incubator.vector gather first measured slower: the
+            // bulk masks miss singles assigned earlier in the pass, so rounds go up
+            for (int cell = 0; cell < 81; cell++) {
+                if (cells[cell] == 0) {
+                    int candidates = candidates(cell);
+                    if (candidates == 0) {
+                        return false;
+                    }
+                    if ((candidates & candidates - 1) == 0) {
+                        assign(cell, Integer.numberOfTrailingZeros(candidates) + 1);
+                        changed = true;
+                        candidates = 0;
+                    }
+                    candidateMap[cell] = candidates;
+                } else {
+                    candidateMap[cell] = 0;
+                }
+            }
+
+            for (int[] unit : UNITS) {
+                int placed = 0;
+                int once = 0;
+                int twice = 0;
+                for (int cell : unit) {
+                    int candidates = candidateMap[cell];
+                    placed |= (1 << cells[cell]) >> 1;
+                    twice |= once & candidates;
+                    once |= candidates;
+                }
+                if ((placed | once) != ALL) {
+                    return false;
+                }
+
+                for (int hidden = once & ~twice; hidden != 0; hidden &= hidden - 1) {
+                    int bit = hidden & -hidden;
+                    for (int cell : unit) {
+                        if (cells[cell] == 0 && (candidates(cell) & bit) != 0) {
+                            assign(cell, Integer.numberOfTrailingZeros(bit) + 1);
+                            changed = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private void assign(int cell, int value) {
+        place(cell, value);
+        trail[trailSize++] = cell;
+    }
+
+    private void undo(int mark) {
+        while (trailSize > mark) {
+            unplace(trail[--trailSize]);
+        }
+    }
+}
@@ -4,12 +4,19 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
 import java.io.*;
+import java.util.concurrent.ExecutionException;
 
 public class SudokuFrame extends JPanel {
 
     public JTextField[][] Board;
     private JMenuBar menuBar;
     private App app;
+    private SolveBudget solveBudget;
+    private IterativeSolver stepper;
+    private final GameState entry = new GameState();
+    private final byte[] entryBoard = new byte[81];
+    private final SolvabilityCheck check = new SolvabilityCheck(this::showSolvability);
+    private JLabel statusLabel;
 
     SudokuFrame(App app, String username) {
         this.app = app;
@@ -39,6 +46,7 @@ public class SudokuFrame extends JPanel {
 
         for (int i = 0; i < 9; i++) {
             for (int j = 0; j < 9; j++) {
+                int cell = i * 9 + j;
                 JTextField textField = new JTextField();
                 textField.setPreferredSize(new Dimension(40, 40));
                 textField.setHorizontalAlignment(JTextField.CENTER);
@@ -58,6 +66,7 @@ public class SudokuFrame extends JPanel {
                 textField.addKeyListener(new KeyAdapter() {
                     @Override
                     public void keyReleased(KeyEvent e) {
+                        stepper = null;
 
                         String input = textField.getText();
                         if (input.length() > 1) {
@@ -69,6 +78,7 @@ public class SudokuFrame extends JPanel {
                         } else {
                             textField.setText("");
                         }
+                        cellEdited(cell);
                     }
                 });
             }
@@ -83,6 +93,9 @@ public class SudokuFrame extends JPanel {
         JButton solveButton = new JButton("Solve");
         styleButton(solveButton);
 
+        JButton stepButton = new JButton("Step");
+        styleButton(stepButton);
+
         backButton.addActionListener(e -> {
             CardLayout layout = (CardLayout) app.getMainFrame().getContentPane().getLayout();
             layout.show(app.getMainFrame().getContentPane(), "mainMenu");
@@ -90,13 +103,15 @@ public class SudokuFrame extends JPanel {
         });
 
         solveButton.addActionListener(e -> {
+            if (solveBudget != null) {
+                solveBudget.cancel();
+                return;
+            }
+            stepper = null;
             try {
-                if (solveSudoku()) {
-                    JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle solved!", "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                } else {
-                    JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle is unsolvable.", "Error",
-                            JOptionPane.ERROR_MESSAGE);
+                int[][] puzzle = readPuzzle();
+                if (puzzle != null) {
+                    solveSudoku(puzzle, solveButton);
                 }
             } catch (Exception ex) {
                 JOptionPane.showMessageDialog(app.getMainFrame(), "Input Sudoku File: " + ex.getMessage(),
@@ -104,19 +119,45 @@ public class SudokuFrame extends JPanel {
             }
         });
 
+        stepButton.addActionListener(e -> {
+            if (solveBudget != null) {
+                return;
+            }
+            try {
+                if (stepper == null) {
+                    int[][] puzzle = readPuzzle();
+                    if (puzzle == null) {
+                        return;
+                    }
+                    stepper = new IterativeSolver(puzzle);
+                }
+                stepSudoku();
+            } catch (Exception ex) {
+                JOptionPane.showMessageDialog(app.getMainFrame(), "Input Sudoku File: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        });
+
         resetButton.addActionListener(e -> {
+            stepper = null;
             for (int i = 0; i < 9; i++) {
                 for (int j = 0; j < 9; j++) {
                     Board[i][j].setText("");
                 }
             }
+            syncBoard();
         });
 
+        statusLabel = new JLabel(" ");
+        statusLabel.setHorizontalAlignment(JLabel.CENTER);
+
         JPanel buttonPanel = new JPanel();
         buttonPanel.add(solveButton);
+        buttonPanel.add(stepButton);
         buttonPanel.add(resetButton);
         buttonPanel.add(backButton);
 
+        add(statusLabel, BorderLayout.NORTH);
         add(BoardPanel, BorderLayout.CENTER);
         add(buttonPanel, BorderLayout.SOUTH);
 
@@ -139,6 +180,7 @@ public class SudokuFrame extends JPanel {
                         row++;
                     }
                     reader.close();
+                    syncBoard();
                 } catch (IOException ex) {
                     JOptionPane.showMessageDialog(app.getMainFrame(), "Error loading file: " + ex.getMessage(),
                             "Error", JOptionPane.ERROR_MESSAGE);
@@ -181,7 +223,7 @@ public class SudokuFrame extends JPanel {
         return menuBar;
     }
 
-    private boolean solveSudoku() {
+    private int[][] readPuzzle() {
         int[][] puzzle = new int[9][9];
 
         for (int i = 0; i < 9; i++) {
@@ -193,8 +235,14 @@ public class SudokuFrame extends JPanel {
             }
         }
 
-        if (!ValidatePuzzle.validate(puzzle)) {
-            return false;
+        ValidatePuzzle.Result result = ValidatePuzzle.validate(puzzle);
+        if (!result.isValid()) {
+            // Out-of-range values are not tracked live, so mark every offending cell here
+            for (int cell : result.getCells()) {
+                Board[cell / 9][cell % 9].setBackground(Color.RED);
+            }
+            JOptionPane.showMessageDialog(SudokuFrame.this, result.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
         }
 
         boolean isEmpty = true;
@@ -209,25 +257,162 @@ public class SudokuFrame extends JPanel {
 
         if (isEmpty) {
             JOptionPane.showMessageDialog(SudokuFrame.this, "Puzzle is empty.", "Error", JOptionPane.ERROR_MESSAGE);
-            return false;
+            return null;
         }
+        return puzzle;
+    }
 
-        if (SudokuSolver.solve(puzzle)) {
+    // Conflicts and cells left with no candidates show up as soon as they are typed; whether the
+    // board can still be completed is checked in the background once typing pauses
+    private void cellEdited(int cell) {
+        applyCell(cell, readCell(cell));
+        requestCheck();
+    }
 
-            for (int i = 0; i < 9; i++) {
-                for (int j = 0; j < 9; j++) {
-                    Board[i][j].setText(Integer.toString(puzzle[i][j]));
+    // Rereads every cell after the board was changed other than by typing
+    private void syncBoard() {
+        for (int cell = 0; cell < 81; cell++) {
+            entry.set(cell, readCell(cell));
+        }
+        for (int cell = 0; cell < 81; cell++) {
+            renderCell(cell);
+        }
+        requestCheck();
+    }
 
-                    try {
-                        Thread.sleep(30);
-                    } catch (InterruptedException ex) {
-                        ex.printStackTrace();
-                    }
+    // The digit in a cell, or 0 for anything that is not a single digit from 1 to 9
+    private int readCell(int cell) {
+        String text = Board[cell / 9][cell % 9].getText().trim();
+        return text.length() == 1 && text.charAt(0) >= '1' && text.charAt(0) <= '9' ? text.charAt(0) - '0' : 0;
+    }
+
+    private void applyCell(int cell, int value) {
+        entry.set(cell, value);
+        renderCell(cell);
+        for (int peer : SudokuEngine.PEERS[cell]) {
+            renderCell(peer);
+        }
+    }
+
+    private void renderCell(int cell) {
+        Color color = Color.WHITE;
+        if (entry.hasConflict(cell)) {
+            color = Color.PINK;
+        } else if (entry.get(cell) == 0 && entry.candidates(cell) == 0) {
+            color = Color.ORANGE;
+        }
+        JTextField field = Board[cell / 9][cell % 9];
+        if (!color.equals(field.getBackground())) {
+            field.setBackground(color);
+        }
+    }
+
+    private void requestCheck() {
+        if (entry.getConflictCount() > 0) {
+            check.cancel();
+            showStatus("Conflicting entries", Color.RED);
+        } else if (entry.getFilled() == 0) {
+            check.cancel();
+            showStatus(" ", Color.BLACK);
+        } else {
+            entry.store(entryBoard);
+            check.request(entryBoard);
+        }
+    }
+
+    private void showSolvability(SudokuSolver.Result result) {
+        if (result == SudokuSolver.Result.SOLVED) {
+            showStatus("Solvable", new Color(0, 128, 0));
+        } else if (result == SudokuSolver.Result.UNSOLVABLE) {
+            showStatus("No solution from here", Color.RED);
+        } else {
+            showStatus(" ", Color.BLACK);
+        }
+    }
+
+    private void showStatus(String text, Color color) {
+        statusLabel.setText(text);
+        statusLabel.setForeground(color);
+    }
+
+    // Solves off the event thread; while it runs the Solve button becomes Cancel
+    private void solveSudoku(int[][] puzzle, JButton solveButton) {
+        SolveBudget budget = new SolveBudget();
+        solveBudget = budget;
+        solveButton.setText("Cancel");
+
+        new SwingWorker<SudokuSolver.Result, Void>() {
+            @Override
+            protected SudokuSolver.Result doInBackground() {
+                return SudokuSolver.solve(puzzle, SudokuSolver.Strategy.MRV, budget);
+            }
+
+            @Override
+            protected void done() {
+                solveBudget = null;
+                solveButton.setText("Solve");
+                SudokuSolver.Result result;
+                try {
+                    result = get();
+                } catch (InterruptedException | ExecutionException ex) {
+                    JOptionPane.showMessageDialog(app.getMainFrame(), "Error solving puzzle: " + ex.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+
+                if (result == SudokuSolver.Result.SOLVED) {
+                    showSolution(puzzle, solveButton);
+                } else if (result == SudokuSolver.Result.ABORTED) {
+                    JOptionPane.showMessageDialog(app.getMainFrame(), "Solve cancelled.", "Cancelled",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } else {
+                    JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle is unsolvable.", "Error",
+                            JOptionPane.ERROR_MESSAGE);
                 }
             }
-            return true;
-        } else {
-            return false;
+        }.execute();
+    }
+
+    private void showSolution(int[][] puzzle, JButton solveButton) {
+        solveButton.setEnabled(false);
+        int[] cell = {0};
+        Timer timer = new Timer(30, null);
+        timer.addActionListener(e -> {
+            int i = cell[0] / 9;
+            int j = cell[0] % 9;
+            Board[i][j].setText(Integer.toString(puzzle[i][j]));
+            if (++cell[0] == 81) {
+                timer.stop();
+                syncBoard();
+                solveButton.setEnabled(true);
+                JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle solved!", "Success",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
+        });
+        timer.start();
+    }
+
+    // Makes one placement or backtrack and redraws only the cells that changed; the solvability
+    // check is debounced, so stepping quickly runs it once when the stepping stops
+    private void stepSudoku() {
+        IterativeSolver.Status status = stepper.step();
+        for (int cell = 0; cell < 81; cell++) {
+            int value = stepper.get(cell);
+            if (value != entry.get(cell)) {
+                Board[cell / 9][cell % 9].setText(value == 0 ? "" : Integer.toString(value));
+                applyCell(cell, value);
+            }
+        }
+        requestCheck();
+
+        if (status == IterativeSolver.Status.SOLUTION) {
+            stepper = null;
+            JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle solved!", "Success",
+                    JOptionPane.INFORMATION_MESSAGE);
+        } else if (status == IterativeSolver.Status.EXHAUSTED) {
+            stepper = null;
+            JOptionPane.showMessageDialog(app.getMainFrame(), "Puzzle is unsolvable.", "Error",
+                    JOptionPane.ERROR_MESSAGE);
         }
     }
 
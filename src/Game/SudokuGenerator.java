@@ -1,152 +1,248 @@
 package Game;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-import java.util.Random;
+import java.util.SplittableRandom;
 
 public class SudokuGenerator {
     public static final int EASY = 40;
     public static final int MEDIUM = 30;
-    public static final int HARD = 20;
-    public static final int NIGHTMARE = 20;
+    // Clue counts alone barely tell Hard from minimal puzzles, so these two tiers are also
+    // held to a band of LogicalSolver ratings; see accepts()
+    public static final int HARD = 26;
+    // Not a clue count: removes clues until none can go without losing uniqueness
+    public static final int MINIMAL = 0;
+    // Not a clue count: a minimal puzzle that needs at least a forcing chain
+    public static final int NIGHTMARE = -1;
+
+    public static final double HARD_MIN_RATING = LogicalSolver.Technique.NAKED_SINGLE.getRating();
+    public static final double HARD_MAX_RATING = LogicalSolver.Technique.XY_WING.getRating();
+    public static final double NIGHTMARE_MIN_RATING = LogicalSolver.Technique.FORCING_CHAIN.getRating();
+    // Bounds the retries for a rating band; the last attempt is kept if none fits
+    public static final int MAX_ATTEMPTS = 64;
+
+    public enum Symmetry {
+        NONE, ROTATIONAL, MIRROR
+    }
 
-    private int[][] puzzle;
-    private int[][] solution;
+    private final byte[] puzzle = new byte[81];
+    private final byte[] solution = new byte[81];
+    private final int[] cells = new int[81];
+    private final boolean[] tried = new boolean[81];
+    private final SudokuEngine engine = new SudokuEngine();
+    private SplittableRandom random = new SplittableRandom();
+    private long seed;
+    private final LogicalSolver grader = new LogicalSolver();
+    private double rating;
+    private Symmetry symmetry = Symmetry.NONE;
 
     public void generate(int difficulty) {
-        puzzle = new int[9][9];
-        solution = new int[9][9];
-        solve(0, 0);
-        copySolutionToPuzzle();
-        removeCells(difficulty);
-    }
-
-    private boolean solve(int row, int col) {
-        if (col == 9) {
-            col = 0;
-            row++;
-            if (row == 9) {
-                return true;
-            }
-        }
-
-        if (solution[row][col] != 0) {
-            return solve(row, col + 1);
-        }
+        generate(difficulty, random.nextLong());
+    }
 
-        List<Integer> numbers = generateRandomNumbers();
-        for (int num : numbers) {
-            if (isSafe(row, col, num)) {
-                solution[row][col] = num;
-                if (solve(row, col + 1)) {
-                    return true;
-                }
-                solution[row][col] = 0;
+    // The same seed and difficulty always produce the same puzzle
+    public void generate(int difficulty, long seed) {
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        for (int attempt = 1; ; attempt++) {
+            engine.clear();
+            fill(0);
+            engine.store(solution);
+            if (difficulty <= MINIMAL) {
+                removeToMinimal();
+            } else {
+                removeCells(difficulty);
+            }
+            engine.store(puzzle);
+            grader.solve(puzzle);
+            rating = grader.getRating();
+            if (accepts(difficulty, rating) || attempt == MAX_ATTEMPTS) {
+                return;
             }
         }
-
-        return false;
     }
 
-    private List<Integer> generateRandomNumbers() {
-        List<Integer> numbers = new ArrayList<>();
-        for (int i = 1; i <= 9; i++) {
-            numbers.add(i);
+    // Whether a puzzle with this rating belongs to the tier; tiers without a band take any rating
+    public static boolean accepts(int difficulty, double rating) {
+        if (difficulty == HARD) {
+            return rating >= HARD_MIN_RATING && rating <= HARD_MAX_RATING;
+        } else if (difficulty == NIGHTMARE) {
+            return rating >= NIGHTMARE_MIN_RATING;
         }
-        Collections.shuffle(numbers);
-        return numbers;
+        return true;
     }
 
-    private boolean isSafe(int row, int col, int num) {
-        return !usedInRow(row, num) && !usedInColumn(col, num) && !usedInBox(row - row % 3, col - col % 3, num);
+    public static boolean hasRatingBand(int difficulty) {
+        return difficulty == HARD || difficulty == NIGHTMARE;
     }
 
-    private boolean usedInRow(int row, int num) {
-        for (int col = 0; col < 9; col++) {
-            if (solution[row][col] == num) {
-                return true;
-            }
+    private boolean fill(int cell) {
+        if (cell == 81) {
+            return true;
         }
-        return false;
-    }
 
-    private boolean usedInColumn(int col, int num) {
-        for (int row = 0; row < 9; row++) {
-            if (solution[row][col] == num) {
+        int candidates = engine.candidates(cell);
+        while (candidates != 0) {
+            int bit = randomBit(candidates);
+            candidates &= ~bit;
+            engine.place(cell, Integer.numberOfTrailingZeros(bit) + 1);
+            if (fill(cell + 1)) {
                 return true;
             }
+            engine.unplace(cell);
         }
+
         return false;
     }
 
-    private boolean usedInBox(int boxStartRow, int boxStartCol, int num) {
-        for (int row = 0; row < 3; row++) {
-            for (int col = 0; col < 3; col++) {
-                if (solution[row + boxStartRow][col + boxStartCol] == num) {
-                    return true;
-                }
-            }
+    private int randomBit(int mask) {
+        for (int skip = random.nextInt(Integer.bitCount(mask)); skip > 0; skip--) {
+            mask &= mask - 1;
         }
-        return false;
+        return mask & -mask;
     }
 
-    private void copySolutionToPuzzle() {
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                puzzle[row][col] = solution[row][col];
-            }
+    private void shuffleCells() {
+        for (int i = 0; i < 81; i++) {
+            cells[i] = i;
+        }
+        for (int i = 80; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = cells[i];
+            cells[i] = cells[j];
+            cells[j] = swap;
         }
     }
 
     private void removeCells(int difficulty) {
-        Random rand = new Random();
         int cellsToRemove = 81 - difficulty;
+        shuffleCells();
+
+        for (int i = 0; i < 81 && cellsToRemove > 0; i++) {
+            int cell = cells[i];
+            int temp = engine.get(cell);
+            engine.unplace(cell);
+
+            // The grid was unique before this removal, so any second solution must differ here
+            if (hasOtherSolution(cell, temp)) {
+                engine.place(cell, temp);
+            } else {
+                cellsToRemove--;
+            }
+        }
+    }
+
+    // Tries every clue (or symmetric pair of clues) once, most constrained first: a clue whose
+    // cell would have few candidates left is the likeliest to be redundant, and one that would
+    // have a single candidate is forced, so it goes without a search at all. Once a clue has to
+    // stay it stays, since removing others can only add solutions.
+    private void removeToMinimal() {
+        shuffleCells();
+        for (int cell = 0; cell < 81; cell++) {
+            tried[cell] = false;
+        }
 
-        while (cellsToRemove > 0) {
-            int row = rand.nextInt(9);
-            int col = rand.nextInt(9);
+        while (true) {
+            int best = -1;
+            int bestScore = Integer.MAX_VALUE;
+            for (int i = 0; i < 81; i++) {
+                int cell = cells[i];
+                if (tried[cell]) {
+                    continue;
+                }
+                int partner = partner(cell);
+                int score = Integer.bitCount(engine.candidates(cell));
+                if (partner != cell) {
+                    score += Integer.bitCount(engine.candidates(partner));
+                }
+                if (score < bestScore) {
+                    best = cell;
+                    bestScore = score;
+                }
+            }
+            if (best < 0) {
+                return;
+            }
 
-            if (puzzle[row][col] != 0) {
-                int temp = puzzle[row][col];
-                puzzle[row][col] = 0;
+            int partner = partner(best);
+            tried[best] = true;
+            tried[partner] = true;
+            int value = engine.get(best);
+            int partnerValue = engine.get(partner);
+            engine.unplace(best);
+            if (partner != best) {
+                engine.unplace(partner);
+            }
 
-                if (!hasUniqueSolution()) {
-                    puzzle[row][col] = temp;
-                } else {
-                    cellsToRemove--;
+            boolean forced = Integer.bitCount(engine.candidates(best)) == 1
+                    && Integer.bitCount(engine.candidates(partner)) == 1;
+            if (!forced && (hasOtherSolution(best, value)
+                    || partner != best && hasOtherSolution(partner, partnerValue))) {
+                engine.place(best, value);
+                if (partner != best) {
+                    engine.place(partner, partnerValue);
                 }
             }
         }
     }
 
-    private boolean hasUniqueSolution() {
-        int[][] copy = new int[9][9];
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                copy[row][col] = puzzle[row][col];
-            }
+    private int partner(int cell) {
+        switch (symmetry) {
+            case ROTATIONAL:
+                return 80 - cell;
+            case MIRROR:
+                return cell - cell % 9 + 8 - cell % 9;
+            default:
+                return cell;
         }
-
-        return solve(0, 0) && !hasMultipleSolutions(copy);
     }
 
-    private boolean hasMultipleSolutions(int[][] puzzle) {
-        int[][] copy = new int[9][9];
-        for (int row = 0; row < 9; row++) {
-            for (int col = 0; col < 9; col++) {
-                copy[row][col] = puzzle[row][col];
-            }
+    private boolean hasOtherSolution(int cell, int value) {
+        SolverStats stats = SolverMetrics.GENERATOR.begin();
+        if (stats == null) {
+            return engine.hasSolutionWithout(cell, value);
         }
+        engine.store(stats.puzzle);
+        stats.hasPuzzle = true;
+        engine.setStats(stats);
+        boolean found = engine.hasSolutionWithout(cell, value);
+        engine.setStats(null);
+        SolverMetrics.GENERATOR.end(stats);
+        return found;
+    }
 
-        return !solve(0, 0);
+    // Clue symmetry for MINIMAL puzzles; with symmetry, no symmetric pair can be removed
+    public void setSymmetry(Symmetry symmetry) {
+        this.symmetry = symmetry;
     }
 
-    public int[][] getPuzzle() {
+    public Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    public byte[] getPuzzleBoard() {
         return puzzle;
     }
 
-    public int[][] getSolution() {
+    public byte[] getSolutionBoard() {
         return solution;
     }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getRating() {
+        return rating;
+    }
+
+    public LogicalSolver.Technique getHardestTechnique() {
+        return grader.getHardest();
+    }
+
+    public int[][] getPuzzle() {
+        return SudokuEngine.toGrid(puzzle);
+    }
+
+    public int[][] getSolution() {
+        return SudokuEngine.toGrid(solution);
+    }
 }
@@ -1,49 +1,217 @@
 package Game;
 
 public class SudokuSolver {
+    public enum Strategy {
+        BACKTRACKING, MRV, DLX, PARALLEL
+    }
+
+    public enum Result {
+        SOLVED, UNSOLVABLE, ABORTED
+    }
+
+    private static final ThreadLocal<DancingLinksSolver> DANCING_LINKS = ThreadLocal
+            .withInitial(DancingLinksSolver::new);
+
+    private static final ParallelSolver PARALLEL = new ParallelSolver();
+
+    // Off unless -Dsudoku.cache.size is set: a plain MRV solve is cheaper than canonicalising,
+    // so the shared cache only pays off for callers that repeat the very same grids
+    private static final int CACHE_SIZE = Integer.getInteger("sudoku.cache.size", 0);
+    private static final SolveCache CACHE = CACHE_SIZE > 0
+            ? new SolveCache(CACHE_SIZE, Boolean.getBoolean("sudoku.cache.canonical"))
+            : null;
+
     public static boolean solve(int[][] puzzle) {
-        return solve(puzzle, 0, 0);
+        if (CACHE == null || puzzle.length != 9) {
+            return solve(puzzle, Strategy.MRV);
+        }
+        return CACHE.solve(puzzle, Strategy.MRV);
     }
 
-    private static boolean solve(int[][] puzzle, int row, int col) {
-        if (row == 9) {
-            return true;
+    // Null when the shared cache is disabled
+    public static SolveCache getCache() {
+        return CACHE;
+    }
+
+    public static boolean solve(int[][] puzzle, Strategy strategy) {
+        SolverStats stats = SolverMetrics.SOLVER.begin(puzzle);
+        boolean solved = solve(puzzle, strategy, stats, null);
+        SolverMetrics.SOLVER.end(stats);
+        return solved;
+    }
+
+    public static Result solve(int[][] puzzle, Strategy strategy, SolveBudget budget) {
+        checkBudgeted(strategy);
+        SolverStats stats = SolverMetrics.SOLVER.begin(puzzle);
+        boolean solved = solve(puzzle, strategy, stats, budget);
+        SolverMetrics.SOLVER.end(stats);
+        return result(solved, budget);
+    }
+
+    private static boolean solve(int[][] puzzle, Strategy strategy, SolverStats stats, SolveBudget budget) {
+        if (puzzle.length != 9) {
+            return solveGeneral(puzzle, budget);
         }
-        if (col == 9) {
-            return solve(puzzle, row + 1, 0);
+        if (strategy == Strategy.DLX) {
+            DancingLinksSolver solver = DANCING_LINKS.get();
+            solver.setStats(stats);
+            solver.setBudget(budget);
+            try {
+                return solver.solve(puzzle);
+            } finally {
+                solver.setStats(null);
+                solver.setBudget(null);
+            }
+        }
+        if (strategy == Strategy.PARALLEL) {
+            return PARALLEL.solve(puzzle, stats);
         }
-        if (puzzle[row][col] != 0) {
-            return solve(puzzle, row, col + 1);
+        SudokuEngine engine = SudokuEngine.local();
+        engine.setStats(stats);
+        engine.setBudget(budget);
+        try {
+            engine.load(puzzle);
+            if (run(engine, strategy)) {
+                engine.store(puzzle);
+                return true;
+            }
+            return false;
+        } finally {
+            engine.setStats(null);
+            engine.setBudget(null);
         }
+    }
+
+    public static boolean solve(byte[] board, Strategy strategy) {
+        SolverStats stats = SolverMetrics.SOLVER.begin(board);
+        boolean solved = solve(board, strategy, stats, null);
+        SolverMetrics.SOLVER.end(stats);
+        return solved;
+    }
 
-        for (int value = 1; value <= 9; value++) {
-            if (isValid(puzzle, row, col, value)) {
-                puzzle[row][col] = value;
-                if (solve(puzzle, row, col + 1)) {
-                    return true;
-                }
-                puzzle[row][col] = 0;
+    public static Result solve(byte[] board, Strategy strategy, SolveBudget budget) {
+        checkBudgeted(strategy);
+        SolverStats stats = SolverMetrics.SOLVER.begin(board);
+        boolean solved = solve(board, strategy, stats, budget);
+        SolverMetrics.SOLVER.end(stats);
+        return result(solved, budget);
+    }
+
+    private static boolean solve(byte[] board, Strategy strategy, SolverStats stats, SolveBudget budget) {
+        if (strategy == Strategy.DLX) {
+            DancingLinksSolver solver = DANCING_LINKS.get();
+            solver.setStats(stats);
+            solver.setBudget(budget);
+            try {
+                return solver.solve(board);
+            } finally {
+                solver.setStats(null);
+                solver.setBudget(null);
+            }
+        }
+        if (strategy == Strategy.PARALLEL) {
+            return PARALLEL.solve(board, stats);
+        }
+        SudokuEngine engine = SudokuEngine.local();
+        engine.setStats(stats);
+        engine.setBudget(budget);
+        try {
+            engine.load(board);
+            if (run(engine, strategy)) {
+                engine.store(board);
+                return true;
             }
+            return false;
+        } finally {
+            engine.setStats(null);
+            engine.setBudget(null);
+        }
+    }
+
+    // The budget is ticked from one thread, so it cannot be shared by the fork/join workers
+    private static void checkBudgeted(Strategy strategy) {
+        if (strategy == Strategy.PARALLEL) {
+            throw new IllegalArgumentException("Budgeted solves do not support " + strategy);
+        }
+    }
+
+    // A null budget is unbounded, so an unsolved grid is simply unsolvable
+    private static Result result(boolean solved, SolveBudget budget) {
+        if (solved) {
+            return Result.SOLVED;
+        }
+        return budget != null && budget.isAborted() ? Result.ABORTED : Result.UNSOLVABLE;
+    }
+
+    private static boolean solveGeneral(int[][] puzzle, SolveBudget budget) {
+        GeneralSudokuEngine engine = GeneralSudokuEngine.forGrid(puzzle);
+        engine.setBudget(budget);
+        engine.load(puzzle);
+        if (engine.solve()) {
+            engine.store(puzzle);
+            return true;
         }
         return false;
     }
 
-    private static boolean isValid(int[][] puzzle, int row, int col, int value) {
-        for (int i = 0; i < 9; i++) {
-            if (puzzle[row][i] == value || puzzle[i][col] == value) {
-                return false;
-            }
+    private static boolean run(SudokuEngine engine, Strategy strategy) {
+        switch (strategy) {
+            case BACKTRACKING:
+                return engine.solve();
+            case MRV:
+                return engine.solveMrv();
+            default:
+                throw new IllegalArgumentException("Unknown strategy: " + strategy);
         }
+    }
 
-        int gridRow = row / 3 * 3;
-        int gridCol = col / 3 * 3;
-        for (int i = gridRow; i < gridRow + 3; i++) {
-            for (int j = gridCol; j < gridCol + 3; j++) {
-                if (puzzle[i][j] == value) {
-                    return false;
-                }
-            }
+    public static int countSolutions(int[][] puzzle, int limit) {
+        if (puzzle.length != 9) {
+            GeneralSudokuEngine engine = GeneralSudokuEngine.forGrid(puzzle);
+            engine.load(puzzle);
+            return engine.countSolutions(limit);
+        }
+        SolverStats stats = SolverMetrics.SOLVER.begin(puzzle);
+        SudokuEngine engine = SudokuEngine.local();
+        engine.setStats(stats);
+        try {
+            engine.load(puzzle);
+            return engine.countSolutions(limit);
+        } finally {
+            engine.setStats(null);
+            SolverMetrics.SOLVER.end(stats);
+        }
+    }
+
+    public static int countSolutions(byte[] board, int limit) {
+        SolverStats stats = SolverMetrics.SOLVER.begin(board);
+        SudokuEngine engine = SudokuEngine.local();
+        engine.setStats(stats);
+        try {
+            engine.load(board);
+            return engine.countSolutions(limit);
+        } finally {
+            engine.setStats(null);
+            SolverMetrics.SOLVER.end(stats);
+        }
+    }
+
+    // Counts up to limit solutions with the given strategy; BACKTRACKING and MRV share the engine's counter
+    public static long countSolutions(byte[] board, long limit, Strategy strategy) {
+        if (strategy == Strategy.PARALLEL) {
+            return PARALLEL.countSolutions(board, limit);
+        }
+        if (strategy != Strategy.DLX) {
+            return countSolutions(board, (int) Math.min(limit, Integer.MAX_VALUE));
+        }
+        SolverStats stats = SolverMetrics.SOLVER.begin(board);
+        DancingLinksSolver solver = DANCING_LINKS.get();
+        solver.setStats(stats);
+        try {
+            return solver.countSolutions(board, limit);
+        } finally {
+            solver.setStats(null);
+            SolverMetrics.SOLVER.end(stats);
         }
-        return true;
     }
 }
@@ -0,0 +1,274 @@
+package Game;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Makes new puzzles from a library of verified ones by relabelling digits, shuffling rows and
+// columns within their bands and stacks, shuffling bands and stacks, and transposing. Those
+// moves also cover every rotation and reflection, and none of them changes the number of
+// solutions or the techniques needed, so the library's solutions and ratings carry over.
+public class TransformGenerator {
+    // Bank lines in BulkGenerator's format; ratings are recomputed on load
+    private static final String[] BUILTIN = {
+            "6..9...1...7.539.894..1.65.8..59....59187...44...21.9..8.....2921.7..4863694....1 3f72486d15c1aab1 40",
+            "5.8.9.7.......4...9.4.5..8..5.6.283..9..4826.8.67.9.5..8...34.66314.5978.4.8.1..3 358d11c32dfc9799 40",
+            "5218...4.6..47.58.8....2.61.58..7296..91268.....5..173.1.......2.4..9.1.93.6.4.28 d61d2b727086a200 40",
+            "1.3658..2..79..3.656.273..1.1.5..4...597.12687.6.32....8.3.917.4.2...8.5......6.. 20092577cd21a0a4 40",
+            "2......8.6.....1.91.4..56.245....2.83..49..56.29..6....7.6.......2.71.......8.9.7 3496fc5086ed51ff 30",
+            "7.1.2.5.8..3..91....215.9.....53.79..4.7.....31.892.......7....5.....4...8.245... 6e2bc95e25f0f8d0 30",
+            "..2.5.......4.9....91..2.7....8....18..5..3.7..7...9.4.5..6...3..9245.6.26...749. 540dd5cb5af00551 30",
+            "..821...6..5.7...11.2..658...3....4.52....9...7.1...6281..4.......9.....3..62.8.9 fbaebf201820ba4a 30",
+            "97.35...16...4...7.1.....8..4..1...8.3..6...4...2..6.......3......6.5.2........19 89cd83f4569ec666 20",
+            ".......6.6..218.9........51........4.14.5......5..6.7..8...9.....74..635...1..... 658b6945080ec627 20",
+            ".5.....8....2....3.3..95..........4.6.732.9...8.7....1...65............73.1.82.9. d26c493b628377ce 20",
+            "3.4....9...846..5......9..8..76.2.......1..6...2.8....15.....8...685..3.8.....2.. 4e05a9db04c112b1 20",
+            ".65.149......52...1.....3..3.7.....2..1........94.81..5...2..9679..........5.6... 218b6d0e34b50b93 20",
+            ".75..93........28.43......65.......8....136......6..17....9.......2...6.1.3.86.9. e6073ec0f2606dd0 20",
+            ".....1.5..7..4...99.53..8.....8........51..4...9..7..3.54..3..8.96............1.6 ff3917c845ea4cc2 20",
+            ".6...7..31............3.19..7...1..2.8.27.3..4.....58...31..4.98...........92..7. 35ca0fd23cbaf282 20",
+            ".2.43..........9.....1...4...5..8..231...5..9..87.....4......238....3....9..2.15. 3a11d9e8f3e7749a 0",
+            "57..........76.2.8.8....97...5........98..........43.67.62.............9.2.47..1. 05a5ef7bc0621d4d 0",
+            "6....2.....3....14.....3....3.8..9.........25.81..........952....4.....921.....3. 81899f829e773efb 0",
+            ".4.59.....3.....5..5..24..9..3.5.8..8..9...756....8.........7.....7...32..14..... 04f25aa378e92dd9 0",
+    };
+
+    private static List<Entry> builtin;
+
+    private final List<Entry> library;
+    private final Map<Integer, Entry[]> byDifficulty = new HashMap<>();
+    private final byte[] puzzle = new byte[81];
+    private final byte[] solution = new byte[81];
+    private final int[] rowOrder = new int[9];
+    private final int[] colOrder = new int[9];
+    private final int[] digits = new int[10];
+    private SplittableRandom random = new SplittableRandom();
+    private long seed;
+    private Entry source;
+
+    public TransformGenerator() {
+        this(builtin());
+    }
+
+    public TransformGenerator(List<Entry> library) {
+        if (library.isEmpty()) {
+            throw new IllegalArgumentException("Empty puzzle library");
+        }
+        this.library = library;
+    }
+
+    public static synchronized List<Entry> builtin() {
+        if (builtin == null) {
+            List<Entry> entries = new ArrayList<>();
+            LibraryBuilder builder = new LibraryBuilder();
+            for (String line : BUILTIN) {
+                builder.add(line, entries);
+            }
+            builtin = entries;
+        }
+        return builtin;
+    }
+
+    // Reads a puzzle bank, keeping only puzzles with exactly one solution
+    public static List<Entry> load(Path path) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        LibraryBuilder builder = new LibraryBuilder();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                builder.add(line, entries);
+            }
+        }
+        return entries;
+    }
+
+    public void generate(int difficulty) {
+        generate(difficulty, random.nextLong());
+    }
+
+    // The same library, seed and difficulty always produce the same puzzle
+    public void generate(int difficulty, long seed) {
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        Entry[] candidates = byDifficulty.computeIfAbsent(difficulty, this::select);
+        source = candidates[random.nextInt(candidates.length)];
+
+        shuffleLines(rowOrder);
+        shuffleLines(colOrder);
+        boolean transposed = random.nextBoolean();
+        digits[0] = 0;
+        for (int i = 1; i <= 9; i++) {
+            digits[i] = i;
+        }
+        for (int i = 9; i > 1; i--) {
+            int j = random.nextInt(i) + 1;
+            int swap = digits[i];
+            digits[i] = digits[j];
+            digits[j] = swap;
+        }
+
+        for (int r = 0; r < 9; r++) {
+            for (int c = 0; c < 9; c++) {
+                int from = transposed ? colOrder[c] * 9 + rowOrder[r] : rowOrder[r] * 9 + colOrder[c];
+                puzzle[r * 9 + c] = (byte) digits[source.puzzle[from]];
+                solution[r * 9 + c] = (byte) digits[source.solution[from]];
+            }
+        }
+    }
+
+    // Entries generated for this difficulty, else for a banded tier those below Medium's clue
+    // count rated inside the band, else those with the nearest clue count
+    private Entry[] select(int difficulty) {
+        List<Entry> matches = new ArrayList<>();
+        for (Entry entry : library) {
+            if (entry.difficulty == difficulty) {
+                matches.add(entry);
+            }
+        }
+        if (matches.isEmpty() && SudokuGenerator.hasRatingBand(difficulty)) {
+            for (Entry entry : library) {
+                if (entry.clues < SudokuGenerator.MEDIUM && SudokuGenerator.accepts(difficulty, entry.rating)) {
+                    matches.add(entry);
+                }
+            }
+        }
+        if (matches.isEmpty()) {
+            int best = Integer.MAX_VALUE;
+            for (Entry entry : library) {
+                int distance = Math.abs(entry.clues - difficulty);
+                if (distance < best) {
+                    best = distance;
+                    matches.clear();
+                }
+                if (distance == best) {
+                    matches.add(entry);
+                }
+            }
+        }
+        return matches.toArray(new Entry[0]);
+    }
+
+    // Shuffles the three bands (or stacks) and the three lines inside each of them
+    private void shuffleLines(int[] order) {
+        int[] bands = { 0, 1, 2 };
+        for (int i = 2; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = bands[i];
+            bands[i] = bands[j];
+            bands[j] = swap;
+        }
+        for (int b = 0; b < 3; b++) {
+            int first = bands[b] * 3;
+            order[b * 3] = first;
+            order[b * 3 + 1] = first + 1;
+            order[b * 3 + 2] = first + 2;
+            for (int i = 2; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = order[b * 3 + i];
+                order[b * 3 + i] = order[b * 3 + j];
+                order[b * 3 + j] = swap;
+            }
+        }
+    }
+
+    public byte[] getPuzzleBoard() {
+        return puzzle;
+    }
+
+    public byte[] getSolutionBoard() {
+        return solution;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public double getRating() {
+        return source.rating;
+    }
+
+    public LogicalSolver.Technique getHardestTechnique() {
+        return source.hardest;
+    }
+
+    public int[][] getPuzzle() {
+        return SudokuEngine.toGrid(puzzle);
+    }
+
+    public int[][] getSolution() {
+        return SudokuEngine.toGrid(solution);
+    }
+
+    public int getLibrarySize() {
+        return library.size();
+    }
+
+    public static class Entry {
+        final byte[] puzzle;
+        final byte[] solution;
+        final int difficulty;
+        final int clues;
+        final double rating;
+        final LogicalSolver.Technique hardest;
+
+        Entry(byte[] puzzle, byte[] solution, int difficulty, int clues, double rating,
+                LogicalSolver.Technique hardest) {
+            this.puzzle = puzzle;
+            this.solution = solution;
+            this.difficulty = difficulty;
+            this.clues = clues;
+            this.rating = rating;
+            this.hardest = hardest;
+        }
+
+        public int getDifficulty() {
+            return difficulty;
+        }
+
+        public double getRating() {
+            return rating;
+        }
+    }
+
+    // Verifies, solves and grades each library puzzle once, so generation never has to
+    private static class LibraryBuilder {
+        private final DancingLinksSolver checker = new DancingLinksSolver();
+        private final LogicalSolver grader = new LogicalSolver();
+
+        void add(String line, List<Entry> entries) {
+            String[] fields = line.trim().split("\\s+");
+            byte[] puzzle = new byte[81];
+            if (fields[0].isEmpty() || !PuzzleFormat.parse(fields[0], puzzle)
+                    || checker.countSolutions(puzzle, 2) != 1) {
+                return;
+            }
+
+            int clues = 0;
+            for (byte value : puzzle) {
+                if (value != 0) {
+                    clues++;
+                }
+            }
+            int difficulty = clues;
+            if (fields.length > 2) {
+                try {
+                    difficulty = Integer.parseInt(fields[2]);
+                } catch (NumberFormatException e) {
+                    // Not a bank line; fall back to the clue count
+                }
+            }
+
+            byte[] solution = puzzle.clone();
+            checker.solve(solution);
+            grader.solve(puzzle);
+            entries.add(new Entry(puzzle, solution, difficulty, clues, grader.getRating(), grader.getHardest()));
+        }
+    }
+}
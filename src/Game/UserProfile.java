@@ -34,9 +34,20 @@ public class UserProfile extends JPanel {
         infoPanel.add(usernameL);
         infoPanel.add(usernameLabel);
 
-        int gamesPlayed = getGamesPlayed(username);
-        int highestScore = getHighestScore(username);
-        int shortestTime = getShortestTime(username);
+        // All four queries for this screen share one pooled connection
+        int gamesPlayed = 0;
+        int highestScore = 0;
+        int shortestTime = 0;
+        List<String[]> leaderboardData = new ArrayList<>();
+        try (Connection conn = JdbcConn.getConnection()) {
+            gamesPlayed = getGamesPlayed(conn, username);
+            highestScore = getHighestScore(conn, username);
+            shortestTime = getShortestTime(conn, username);
+            leaderboardData = getLeaderboard(conn, username);
+        } catch (SQLException e) {
+            System.out.println("Error loading profile: " + e.getMessage());
+            e.printStackTrace();
+        }
 
         JLabel gamesPlayedL = new JLabel("Games Played: ");
         JLabel gamesPlayedLabel = new JLabel("" + gamesPlayed);
@@ -71,7 +82,6 @@ public class UserProfile extends JPanel {
         DefaultTableModel tableModel = new DefaultTableModel(columnNames, 0);
 
         // Populate the JTable model with data
-        List<String[]> leaderboardData = getLeaderboard(username);
         for (String[] entry : leaderboardData) {
             tableModel.addRow(entry);
         }
@@ -127,12 +137,11 @@ public class UserProfile extends JPanel {
         add(leaderboardPanel); // Add leaderboard panel containing table and button
     }
 
-    private int getGamesPlayed(String username) {
+    private int getGamesPlayed(Connection conn, String username) {
         int gamesPlayed = 0;
         String query = "SELECT COUNT(*) FROM scores WHERE username = ?";
 
-        try (Connection conn = JdbcConn.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -147,12 +156,11 @@ public class UserProfile extends JPanel {
         return gamesPlayed;
     }
 
-    private int getHighestScore(String username) {
+    private int getHighestScore(Connection conn, String username) {
         int highestScore = 0;
         String query = "SELECT MAX(score) FROM scores WHERE username = ?";
 
-        try (Connection conn = JdbcConn.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -167,12 +175,11 @@ public class UserProfile extends JPanel {
         return highestScore;
     }
 
-    private int getShortestTime(String username) {
+    private int getShortestTime(Connection conn, String username) {
         int shortestTime = Integer.MAX_VALUE;
         String query = "SELECT MIN(time_taken) FROM scores WHERE username = ?";
 
-        try (Connection conn = JdbcConn.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -187,12 +194,11 @@ public class UserProfile extends JPanel {
         return shortestTime == Integer.MAX_VALUE ? 0 : shortestTime;
     }
 
-    private List<String[]> getLeaderboard(String username) {
+    private List<String[]> getLeaderboard(Connection conn, String username) {
         List<String[]> leaderboardData = new ArrayList<>();
         String query = "SELECT score, time_taken, difficulty FROM scores WHERE username = ? ORDER BY score DESC LIMIT 5";
 
-        try (Connection conn = JdbcConn.getConnection();
-                PreparedStatement stmt = conn.prepareStatement(query)) {
+        try (PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
             try (ResultSet rs = stmt.executeQuery()) {
@@ -1,86 +1,218 @@
 package Game;
 
-import javax.swing.JOptionPane;
+import java.util.Arrays;
 
+// Checks a grid for values out of range and values repeated within a row, column or box.
+// Valid grids take one pass over a per-thread set of unit masks and return the shared VALID
+// result without allocating; only an invalid grid gets a second pass to list what is wrong.
 public class ValidatePuzzle {
-    public static boolean validate(int[][] puzzle) {
-        for (int i = 0; i < 9; i++) {
-            boolean[] used = new boolean[9];
-            for (int j = 0; j < 9; j++) {
+    public static final int MAX_SIZE = 64;
+    public static final Result VALID = new Result(0, new int[0], new int[0], new int[0]);
+
+    private static final ThreadLocal<long[]> SEEN = ThreadLocal.withInitial(() -> new long[3 * MAX_SIZE]);
+
+    public static Result validate(byte[] board) {
+        long[] seen = SEEN.get();
+        Arrays.fill(seen, 0, 27, 0);
+        for (int cell = 0; cell < 81; cell++) {
+            int value = board[cell];
+            if (value == 0) {
+                continue;
+            }
+            if (value < 0 || value > 9) {
+                return describe(toValues(board), 9);
+            }
+            long bit = 1L << (value - 1);
+            int row = SudokuEngine.ROW[cell];
+            int col = 9 + SudokuEngine.COL[cell];
+            int box = 18 + SudokuEngine.BOX[cell];
+            if (((seen[row] | seen[col] | seen[box]) & bit) != 0) {
+                return describe(toValues(board), 9);
+            }
+            seen[row] |= bit;
+            seen[col] |= bit;
+            seen[box] |= bit;
+        }
+        return VALID;
+    }
+
+    public static Result validate(int[][] puzzle) {
+        int size = puzzle.length;
+        int box = (int) Math.round(Math.sqrt(size));
+        if (size > MAX_SIZE || box * box != size) {
+            throw new IllegalArgumentException("Unsupported grid size: " + size);
+        }
+
+        long[] seen = SEEN.get();
+        Arrays.fill(seen, 0, 3 * size, 0);
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 int value = puzzle[i][j];
-                if (value < 0 || value > 9) {
-                    JOptionPane.showMessageDialog(null,
-                            "Invalid puzzle: Value at row " + (i + 1) + ", column " + (j + 1)
-                                    + " is not between 1 and 9.",
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    return false;
+                if (value == 0) {
+                    continue;
                 }
-                if (value != 0) {
-                    if (used[value - 1]) {
-                        JOptionPane.showMessageDialog(null,
-                                "Invalid puzzle: Row " + (i + 1) + " contains duplicate values.", "Error",
-                                JOptionPane.ERROR_MESSAGE);
-                        return false;
-                    }
-                    used[value - 1] = true;
+                if (value < 0 || value > size) {
+                    return describe(toValues(puzzle), size);
                 }
+                long bit = 1L << (value - 1);
+                int col = size + j;
+                int unit = 2 * size + i / box * box + j / box;
+                if (((seen[i] | seen[col] | seen[unit]) & bit) != 0) {
+                    return describe(toValues(puzzle), size);
+                }
+                seen[i] |= bit;
+                seen[col] |= bit;
+                seen[unit] |= bit;
             }
         }
+        return VALID;
+    }
 
-        for (int j = 0; j < 9; j++) {
-            boolean[] used = new boolean[9];
-            for (int i = 0; i < 9; i++) {
-                int value = puzzle[i][j];
-                if (value < 0 || value > 9) {
-                    JOptionPane.showMessageDialog(null,
-                            "Invalid puzzle: Value at row " + (i + 1) + ", column " + (j + 1)
-                                    + " is not between 1 and 9.",
-                            "Error",
-                            JOptionPane.ERROR_MESSAGE);
-                    return false;
+    // The slow path: marks every cell that is out of range or shares its value with a unit mate
+    private static Result describe(int[] values, int size) {
+        int box = (int) Math.round(Math.sqrt(size));
+        boolean[] bad = new boolean[size * size];
+        boolean[] outOfRange = new boolean[size * size];
+        int[] units = new int[3 * size];
+        int unitCount = 0;
+        int[] cells = new int[size];
+        int[] count = new int[size + 1];
+
+        for (int cell = 0; cell < values.length; cell++) {
+            if (values[cell] < 0 || values[cell] > size) {
+                bad[cell] = true;
+                outOfRange[cell] = true;
+            }
+        }
+
+        for (int unit = 0; unit < 3 * size; unit++) {
+            Arrays.fill(count, 0);
+            for (int k = 0; k < size; k++) {
+                cells[k] = unitCell(unit, k, size, box);
+                int value = values[cells[k]];
+                if (value > 0 && value <= size) {
+                    count[value]++;
                 }
-                if (value != 0) {
-                    if (used[value - 1]) {
-                        JOptionPane.showMessageDialog(null,
-                                "Invalid puzzle: Column " + (j + 1) + " contains duplicate values.", "Error",
-                                JOptionPane.ERROR_MESSAGE);
-                        return false;
-                    }
-                    used[value - 1] = true;
+            }
+            boolean repeated = false;
+            for (int k = 0; k < size; k++) {
+                int value = values[cells[k]];
+                if (value > 0 && value <= size && count[value] > 1) {
+                    bad[cells[k]] = true;
+                    repeated = true;
                 }
             }
+            if (repeated) {
+                units[unitCount++] = unit;
+            }
         }
+        return new Result(size, indices(bad), Arrays.copyOf(units, unitCount), indices(outOfRange));
+    }
 
-        for (int gridRow = 0; gridRow < 9; gridRow += 3) {
-            for (int gridCol = 0; gridCol < 9; gridCol += 3) {
-                boolean[] used = new boolean[9];
-                for (int i = gridRow; i < gridRow + 3; i++) {
-                    for (int j = gridCol; j < gridCol + 3; j++) {
-                        int value = puzzle[i][j];
-                        if (value < 0 || value > 9) {
-                            JOptionPane.showMessageDialog(null,
-                                    "Invalid puzzle: Value at row " + (i + 1) + ", column " + (j + 1)
-                                            + " is not between 1 and 9.",
-                                    "Error",
-                                    JOptionPane.ERROR_MESSAGE);
-                            return false;
-                        }
-                        if (value != 0) {
-                            if (used[value - 1]) {
-                                JOptionPane
-                                        .showMessageDialog(null,
-                                                "Invalid puzzle: Grid (" + (gridRow / 3 + 1) + "," + (gridCol / 3 + 1)
-                                                        + ") contains duplicate values.",
-                                                "Error", JOptionPane.ERROR_MESSAGE);
-                                return false;
-                            }
-                            used[value - 1] = true;
-                        }
-                    }
-                }
+    // Units are numbered rows first, then columns, then boxes, as in SudokuEngine.UNITS
+    private static int unitCell(int unit, int k, int size, int box) {
+        int index = unit % size;
+        switch (unit / size) {
+            case 0:
+                return index * size + k;
+            case 1:
+                return k * size + index;
+            default:
+                return (index / box * box + k / box) * size + index % box * box + k % box;
+        }
+    }
+
+    private static int[] indices(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) {
+            if (flag) {
+                count++;
+            }
+        }
+        int[] indices = new int[count];
+        count = 0;
+        for (int i = 0; i < flags.length; i++) {
+            if (flags[i]) {
+                indices[count++] = i;
+            }
+        }
+        return indices;
+    }
+
+    private static int[] toValues(byte[] board) {
+        int[] values = new int[board.length];
+        for (int cell = 0; cell < board.length; cell++) {
+            values[cell] = board[cell];
+        }
+        return values;
+    }
+
+    private static int[] toValues(int[][] puzzle) {
+        int size = puzzle.length;
+        int[] values = new int[size * size];
+        for (int i = 0; i < size; i++) {
+            System.arraycopy(puzzle[i], 0, values, i * size, size);
+        }
+        return values;
+    }
+
+    public static class Result {
+        private final int size;
+        private final int[] cells;
+        private final int[] units;
+        private final int[] outOfRange;
+
+        Result(int size, int[] cells, int[] units, int[] outOfRange) {
+            this.size = size;
+            this.cells = cells;
+            this.units = units;
+            this.outOfRange = outOfRange;
+        }
+
+        public boolean isValid() {
+            return cells.length == 0;
+        }
+
+        // Every offending cell, as row * size + column
+        public int[] getCells() {
+            return cells;
+        }
+
+        // Units holding a repeated value: rows 0..size-1, columns size..2*size-1, then boxes
+        public int[] getUnits() {
+            return units;
+        }
+
+        public int[] getOutOfRange() {
+            return outOfRange;
+        }
+
+        public String unitName(int unit) {
+            int index = unit % size + 1;
+            switch (unit / size) {
+                case 0:
+                    return "Row " + index;
+                case 1:
+                    return "Column " + index;
+                default:
+                    int box = (int) Math.round(Math.sqrt(size));
+                    return "Grid (" + ((index - 1) / box + 1) + "," + ((index - 1) % box + 1) + ")";
+            }
+        }
+
+        public String getMessage() {
+            if (isValid()) {
+                return "Puzzle is valid.";
+            }
+            StringBuilder message = new StringBuilder("Invalid puzzle:");
+            for (int cell : outOfRange) {
+                message.append("\nValue at row ").append(cell / size + 1).append(", column ")
+                        .append(cell % size + 1).append(" is not between 1 and ").append(size).append('.');
+            }
+            for (int unit : units) {
+                message.append('\n').append(unitName(unit)).append(" contains duplicate values.");
             }
+            return message.toString();
         }
-        return true;
     }
 }
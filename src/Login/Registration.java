@@ -7,6 +7,7 @@ import java.awt.event.ActionListener;
 import java.sql.*;
 import org.mindrot.jbcrypt.BCrypt;
 
+import Game.JdbcConn;
 import Game.RoundedButtonUI;
 
 public class Registration extends JFrame {
@@ -113,7 +114,7 @@ public class Registration extends JFrame {
 
     private boolean validateUsername(String username) {
         String query = "SELECT * FROM users WHERE username = ?";
-        try (Connection conn = DriverManager.getConnection("jdbc:mysql://localhost:3306/sudoku", "root", "");
+        try (Connection conn = JdbcConn.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
@@ -130,7 +131,7 @@ public class Registration extends JFrame {
 
     private boolean addUser(String username, String hashedPassword) {
         String query = "INSERT INTO users (username, password, role) VALUES (?, ?, 'user')";
-        try (Connection conn = DriverManager.getConnection("jdbc:mysql://localhost:3306/sudoku", "root", "");
+        try (Connection conn = JdbcConn.getConnection();
                 PreparedStatement stmt = conn.prepareStatement(query)) {
 
             stmt.setString(1, username);
@@ -36,7 +36,9 @@ CREATE TABLE `scores` (
   `time_taken` INT(11) NOT NULL,
   `difficulty` VARCHAR(10) NOT NULL,
   `timestamp` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP(),
-  PRIMARY KEY (`id`)
+  `puzzle_id` INT(11) DEFAULT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_username_puzzle` (`username`, `puzzle_id`)
 ) ENGINE=INNODB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 --
@@ -55,6 +57,32 @@ INSERT INTO `scores` (`id`, `username`, `score`, `time_taken`, `difficulty`, `ti
 
 -- --------------------------------------------------------
 
+--
+-- Table structure for table `puzzles`
+--
+-- Grids are packed two cells per byte. Equivalent puzzles share a canonical hash, computed
+-- by an unbudgeted search so it is exact, and `shuffle` is a random key used to pick a
+-- random puzzle with one index seek.
+-- To upgrade an existing database, also run:
+--   ALTER TABLE `scores` ADD `puzzle_id` INT(11) DEFAULT NULL, ADD KEY `idx_username_puzzle` (`username`, `puzzle_id`);
+--
+
+CREATE TABLE `puzzles` (
+  `id` INT(11) NOT NULL AUTO_INCREMENT,
+  `grid` BINARY(41) NOT NULL,
+  `solution` BINARY(41) NOT NULL,
+  `rating` DECIMAL(3,1) NOT NULL,
+  `difficulty` VARCHAR(10) NOT NULL,
+  `canonical_hash` BINARY(16) NOT NULL,
+  `shuffle` INT(11) NOT NULL,
+  PRIMARY KEY (`id`),
+  UNIQUE KEY `uq_canonical_hash` (`canonical_hash`),
+  KEY `idx_difficulty_rating` (`difficulty`, `rating`),
+  KEY `idx_difficulty_shuffle` (`difficulty`, `shuffle`)
+) ENGINE=INNODB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- --------------------------------------------------------
+
 --
 -- Table structure for table `users`
 --